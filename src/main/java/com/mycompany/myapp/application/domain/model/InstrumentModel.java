@@ -4,10 +4,12 @@ public class InstrumentModel {
 
     private final Long id;
     private final String name;
+    private final Long version;
 
-    public InstrumentModel(Long id, String name) {
+    public InstrumentModel(Long id, String name, Long version) {
         this.id = id;
         this.name = name;
+        this.version = version;
     }
 
     public Long getId() {
@@ -17,4 +19,8 @@ public class InstrumentModel {
     public String getName() {
         return name;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,282 @@
+package com.mycompany.myapp.application.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable, id-ordered view of all instruments.
+ * <p>
+ * Ids are kept in a primitive {@code long[]} next to a parallel array of models, so a lookup is a binary search
+ * without boxing and a page is a plain array range. The named instruments are also kept sorted by lower-cased name, so
+ * a name prefix search is a binary search followed by a scan of the matches.
+ * <p>
+ * Changes never mutate an existing snapshot: {@link #withChanges(Map)} merges them into a new one, which lets readers
+ * use a snapshot without any locking.
+ * <p>
+ * The {@link #digest()} only depends on the instruments it holds, so snapshots holding the same instruments have the
+ * same digest, however they were built.
+ */
+public final class InstrumentSnapshot {
+
+    private static final InstrumentSnapshot EMPTY = new InstrumentSnapshot(
+        new long[0],
+        new InstrumentModel[0],
+        new String[0],
+        new InstrumentModel[0],
+        0L
+    );
+
+    private static final Comparator<NameEntry> NAME_ORDER = Comparator
+        .comparing(NameEntry::key)
+        .thenComparingLong(entry -> entry.model().getId());
+
+    private final long[] ids;
+
+    private final InstrumentModel[] models;
+
+    private final String[] nameKeys;
+
+    private final InstrumentModel[] modelsByName;
+
+    private final long digest;
+
+    private InstrumentSnapshot(
+        long[] ids,
+        InstrumentModel[] models,
+        String[] nameKeys,
+        InstrumentModel[] modelsByName,
+        long digest
+    ) {
+        this.ids = ids;
+        this.models = models;
+        this.nameKeys = nameKeys;
+        this.modelsByName = modelsByName;
+        this.digest = digest;
+    }
+
+    public static InstrumentSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a snapshot from instruments with distinct ids, in any order.
+     *
+     * @param instruments the instruments to index.
+     * @return the snapshot.
+     */
+    public static InstrumentSnapshot of(Collection<InstrumentModel> instruments) {
+        if (instruments.isEmpty()) {
+            return EMPTY;
+        }
+        InstrumentModel[] sorted = instruments.toArray(new InstrumentModel[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(InstrumentModel::getId));
+        long[] sortedIds = new long[sorted.length];
+        long sortedDigest = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            sortedIds[i] = sorted[i].getId();
+            sortedDigest += digest(sorted[i]);
+        }
+        NameEntry[] byName = instruments.stream().filter(model -> model.getName() != null).map(NameEntry::of).toArray(NameEntry[]::new);
+        Arrays.sort(byName, NAME_ORDER);
+        String[] sortedNameKeys = new String[byName.length];
+        InstrumentModel[] sortedByName = new InstrumentModel[byName.length];
+        for (int i = 0; i < byName.length; i++) {
+            sortedNameKeys[i] = byName[i].key();
+            sortedByName[i] = byName[i].model();
+        }
+        return new InstrumentSnapshot(sortedIds, sorted, sortedNameKeys, sortedByName, sortedDigest);
+    }
+
+    /**
+     * Get the "id" instrument.
+     *
+     * @param id the id of the instrument.
+     * @return the instrument, or {@code null} if it is not in the snapshot.
+     */
+    public InstrumentModel get(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? models[index] : null;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Get the digest of the instruments of this snapshot: their ids, names and versions.
+     *
+     * @return the digest.
+     */
+    public long digest() {
+        return digest;
+    }
+
+    /**
+     * Get a range of instruments in id order.
+     *
+     * @param offset the number of instruments to skip.
+     * @param limit the maximum number of instruments to return.
+     * @param descending whether to walk the ids from the highest one.
+     * @return the instruments in the range.
+     */
+    public List<InstrumentModel> slice(long offset, int limit, boolean descending) {
+        if (offset >= ids.length || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int from = (int) offset;
+        int to = (int) Math.min((long) from + limit, ids.length);
+        if (!descending) {
+            return Collections.unmodifiableList(Arrays.asList(models).subList(from, to));
+        }
+        List<InstrumentModel> result = new ArrayList<>(to - from);
+        for (int i = ids.length - 1 - from; i >= ids.length - to; i--) {
+            result.add(models[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Get the instruments following an id, in id order.
+     *
+     * @param afterId the id to start after, which does not need to be in the snapshot.
+     * @param limit the maximum number of instruments to return.
+     * @return the instruments with an id greater than {@code afterId}.
+     */
+    public List<InstrumentModel> sliceAfter(long afterId, int limit) {
+        int index = Arrays.binarySearch(ids, afterId);
+        return slice(index >= 0 ? index + 1 : -index - 1, limit, false);
+    }
+
+    /**
+     * Get the instruments whose name starts with a prefix, ignoring case, in name order.
+     *
+     * @param prefix the name prefix.
+     * @param limit the maximum number of instruments to return.
+     * @return the matching instruments.
+     */
+    public List<InstrumentModel> searchByNamePrefix(String prefix, int limit) {
+        String key = nameKey(prefix);
+        int low = 0;
+        int high = nameKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (nameKeys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<InstrumentModel> result = new ArrayList<>();
+        for (int i = low; i < nameKeys.length && result.size() < limit && nameKeys[i].startsWith(key); i++) {
+            result.add(modelsByName[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Create a new snapshot with the given changes applied.
+     *
+     * @param changes the changed instruments by id, a {@code null} value marking a deleted instrument.
+     * @return the new snapshot, or this one if there is nothing to apply.
+     */
+    public InstrumentSnapshot withChanges(Map<Long, InstrumentModel> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        long[] changedIds = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] newIds = new long[ids.length + changedIds.length];
+        InstrumentModel[] newModels = new InstrumentModel[newIds.length];
+        long newDigest = digest;
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < ids.length || j < changedIds.length) {
+            if (j == changedIds.length || (i < ids.length && ids[i] < changedIds[j])) {
+                newIds[n] = ids[i];
+                newModels[n++] = models[i++];
+            } else {
+                long id = changedIds[j++];
+                if (i < ids.length && ids[i] == id) {
+                    newDigest -= digest(models[i++]);
+                }
+                InstrumentModel model = changes.get(id);
+                if (model != null) {
+                    newIds[n] = id;
+                    newModels[n++] = model;
+                    newDigest += digest(model);
+                }
+            }
+        }
+        if (n == 0) {
+            return EMPTY;
+        }
+
+        // Every changed id is dropped from the name index, and the new names are merged back in order
+        NameEntry[] added = changes
+            .values()
+            .stream()
+            .filter(model -> model != null && model.getName() != null)
+            .map(NameEntry::of)
+            .sorted(NAME_ORDER)
+            .toArray(NameEntry[]::new);
+        String[] newNameKeys = new String[nameKeys.length + added.length];
+        InstrumentModel[] newModelsByName = new InstrumentModel[newNameKeys.length];
+        int a = 0;
+        int b = 0;
+        int m = 0;
+        while (a < nameKeys.length || b < added.length) {
+            if (a < nameKeys.length && Arrays.binarySearch(changedIds, modelsByName[a].getId()) >= 0) {
+                a++;
+            } else if (b == added.length || (a < nameKeys.length && compareByName(nameKeys[a], modelsByName[a], added[b]) < 0)) {
+                newNameKeys[m] = nameKeys[a];
+                newModelsByName[m++] = modelsByName[a++];
+            } else {
+                newNameKeys[m] = added[b].key();
+                newModelsByName[m++] = added[b++].model();
+            }
+        }
+        return new InstrumentSnapshot(
+            Arrays.copyOf(newIds, n),
+            Arrays.copyOf(newModels, n),
+            Arrays.copyOf(newNameKeys, m),
+            Arrays.copyOf(newModelsByName, m),
+            newDigest
+        );
+    }
+
+    /**
+     * The digest of one instrument, summed over the snapshot so that a change only adds and subtracts those of the
+     * instruments it replaces. String hash codes are specified, so the digest is the same on every instance.
+     */
+    private static long digest(InstrumentModel model) {
+        long hash = model.getId();
+        hash = hash * 31 + Objects.hashCode(model.getName());
+        hash = hash * 31 + Objects.hashCode(model.getVersion());
+        // Finalizer of SplitMix64, spreading the bits of the hash over the whole sum
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static int compareByName(String key, InstrumentModel model, NameEntry entry) {
+        int result = key.compareTo(entry.key());
+        return result != 0 ? result : Long.compare(model.getId(), entry.model().getId());
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record NameEntry(String key, InstrumentModel model) {
+        private static NameEntry of(InstrumentModel model) {
+            return new NameEntry(nameKey(model.getName()), model);
+        }
+    }
+}
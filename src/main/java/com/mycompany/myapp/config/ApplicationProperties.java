@@ -1,6 +1,10 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Jhi 8 Demo.
@@ -10,7 +14,297 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final InstrumentSnapshot instrumentSnapshot = new InstrumentSnapshot();
+
+    private final InstrumentBatch instrumentBatch = new InstrumentBatch();
+
+    private final InstrumentFeed instrumentFeed = new InstrumentFeed();
+
+    private final Cache cache = new Cache();
+
+    private final CacheInvalidation cacheInvalidation = new CacheInvalidation();
+
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+
     // jhipster-needle-application-properties-property
+
+    public InstrumentSnapshot getInstrumentSnapshot() {
+        return instrumentSnapshot;
+    }
+
+    public InstrumentBatch getInstrumentBatch() {
+        return instrumentBatch;
+    }
+
+    public InstrumentFeed getInstrumentFeed() {
+        return instrumentFeed;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokenCache;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class InstrumentSnapshot {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class InstrumentBatch {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class InstrumentFeed {
+
+        private int bufferSize = 256;
+
+        private Duration timeout = Duration.ofMinutes(30);
+
+        private int senderThreads = 4;
+
+        private int senderQueueCapacity = 1000;
+
+        private Duration sendTimeout = Duration.ofSeconds(10);
+
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public int getSenderQueueCapacity() {
+            return senderQueueCapacity;
+        }
+
+        public void setSenderQueueCapacity(int senderQueueCapacity) {
+            this.senderQueueCapacity = senderQueueCapacity;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+
+    public static class Cache {
+
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private boolean regionMeters = false;
+
+        /**
+         * The configuration of each cache region, by region name.
+         */
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Whether the hits, misses and puts of the Hibernate entity and query regions are published, which enables the
+         * Hibernate statistics.
+         */
+        public boolean isRegionMeters() {
+            return regionMeters;
+        }
+
+        public void setRegionMeters(boolean regionMeters) {
+            this.regionMeters = regionMeters;
+        }
+
+        /**
+         * The sizes and expiry of a cache region; those left unset are the {@code jhipster.cache.ehcache} ones.
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            // Instead of heapEntries
+            private DataSize heapSize;
+
+            // Entries that do not fit on heap go to this off-heap tier, serialized outside of the garbage collected heap
+            private DataSize offheapSize;
+
+            private Duration timeToLive;
+
+            // Instead of timeToLive
+            private Duration timeToIdle;
+
+            // The entries of single-flight caches older than this are reloaded in the background when read, shorter than timeToLive
+            private Duration refreshAfter;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffheapSize() {
+                return offheapSize;
+            }
+
+            public void setOffheapSize(DataSize offheapSize) {
+                this.offheapSize = offheapSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+
+            public Duration getRefreshAfter() {
+                return refreshAfter;
+            }
+
+            public void setRefreshAfter(Duration refreshAfter) {
+                this.refreshAfter = refreshAfter;
+            }
+        }
+    }
+
+    public static class CacheInvalidation {
+
+        private boolean enabled = false;
+
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        private int maxPending = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void setReconnectDelay(Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+    }
+
+    public static class VerifiedTokenCache {
+
+        private boolean enabled = true;
+
+        private int maxEntries = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
@@ -1,15 +1,38 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.management.CacheMetersService;
+import com.mycompany.myapp.management.QueryCacheMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.internal.statistics.DefaultCacheStatistics;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.SessionFactory;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
 import tech.jhipster.config.JHipsterProperties;
@@ -21,18 +44,14 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+    private final boolean regionMeters;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.regions = applicationProperties.getCache().getRegions();
+        this.regionMeters = applicationProperties.getCache().isRegionMeters();
     }
 
     @Bean
@@ -40,26 +59,194 @@ public class CacheConfiguration {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
     }
 
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cache", name = "region-meters", havingValue = "true")
+    public QueryCacheMetersService queryCacheMetersService(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+        return new QueryCacheMetersService(
+            meterRegistry,
+            regionStatistics(entityManagerFactory),
+            List.of(
+                com.mycompany.myapp.repository.InstrumentRepository.INSTRUMENT_LIST_QUERY_CACHE,
+                com.mycompany.myapp.repository.UserRepository.PUBLIC_USER_LIST_QUERY_CACHE
+            )
+        );
+    }
+
+    @Bean
+    public CacheMetersService cacheMetersService(
+        MeterRegistry meterRegistry,
+        javax.cache.CacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        if (!regionMeters) {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            return new CacheMetersService(
+                meterRegistry,
+                cacheManager,
+                cacheName -> ehcacheStatistics(cacheManager, cacheName),
+                statistics,
+                List.of()
+            );
+        }
+        return new CacheMetersService(
+            meterRegistry,
+            cacheManager,
+            cacheName -> ehcacheStatistics(cacheManager, cacheName),
+            regionStatistics(entityManagerFactory),
+            List.of(
+                com.mycompany.myapp.domain.User.class.getName(),
+                com.mycompany.myapp.domain.Authority.class.getName(),
+                com.mycompany.myapp.domain.User.class.getName() + ".authorities",
+                com.mycompany.myapp.domain.Instrument.class.getName()
+            )
+        );
+    }
+
+    /**
+     * The Hibernate statistics, collected from now on. Hibernate cannot collect them for some regions only, and counting
+     * every session, statement and entity load has a cost on each request, so they are only enabled for the region meters.
+     */
+    private static Statistics regionStatistics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        return statistics;
+    }
+
+    /**
+     * The Ehcache statistics of a cache, as the {@code StatisticsService} of the cache manager gives them: the JCache
+     * provider does not expose its service, so they are built the same way over the Ehcache cache behind the JCache one.
+     */
+    private static CacheStatistics ehcacheStatistics(javax.cache.CacheManager cacheManager, String cacheName) {
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        return new DefaultCacheStatistics((InternalCache<?, ?>) cache.unwrap(org.ehcache.Cache.class), SystemTimeSource.INSTANCE);
+    }
+
+    /**
+     * Resolve the caches of the {@code @Cacheable(sync = true)} methods to {@link SingleFlightCache}s, so that the concurrent
+     * misses of a key run a single query. The unknown logins and emails are kept in their own caches, and the entries of the
+     * regions with a {@code refresh-after} are refreshed on the task executor.
+     */
+    @Bean(com.mycompany.myapp.repository.UserRepository.SINGLE_FLIGHT_CACHE_RESOLVER)
+    public CacheResolver singleFlightCacheResolver(
+        CacheManager cacheManager,
+        MeterRegistry meterRegistry,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        Map<String, String> unknownKeysCacheNames = Map.of(
+            com.mycompany.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE,
+            com.mycompany.myapp.repository.UserRepository.UNKNOWN_USERS_BY_LOGIN_CACHE,
+            com.mycompany.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE,
+            com.mycompany.myapp.repository.UserRepository.UNKNOWN_USERS_BY_EMAIL_CACHE
+        );
+        Map<String, Cache> caches = new ConcurrentHashMap<>();
+        return context ->
+            context
+                .getOperation()
+                .getCacheNames()
+                .stream()
+                .map(name ->
+                    caches.computeIfAbsent(name, n -> {
+                        String unknownKeysCacheName = unknownKeysCacheNames.get(n);
+                        Cache unknownKeys = unknownKeysCacheName != null ? cacheManager.getCache(unknownKeysCacheName) : null;
+                        ApplicationProperties.Cache.Region region = regions.getOrDefault(n, new ApplicationProperties.Cache.Region());
+                        return new SingleFlightCache(
+                            cacheManager.getCache(n),
+                            unknownKeys,
+                            region.getRefreshAfter(),
+                            taskExecutor,
+                            meterRegistry
+                        );
+                    })
+                )
+                .toList();
+    }
+
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserRepository.UNKNOWN_USERS_BY_LOGIN_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserRepository.UNKNOWN_USERS_BY_EMAIL_CACHE);
             createCache(cm, com.mycompany.myapp.domain.User.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Authority.class.getName());
             createCache(cm, com.mycompany.myapp.domain.User.class.getName() + ".authorities");
             createCache(cm, com.mycompany.myapp.domain.Instrument.class.getName());
+            // The last change of each table: an entry lost before the query results depending on it would let them be served stale
+            createCache(
+                cm,
+                RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                jcacheConfiguration(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, false)
+            );
+            createCache(cm, com.mycompany.myapp.repository.InstrumentRepository.INSTRUMENT_LIST_QUERY_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserRepository.PUBLIC_USER_LIST_QUERY_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration(cacheName, true));
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
+        }
+        // Counts the gets, puts and evictions published by CacheMetersService and the JCache meters of Spring Boot
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Build the configuration of a region from its {@code application.cache.regions} entry. The sizes and expiry that the
+     * entry does not set are the {@code jhipster.cache.ehcache} ones.
+     *
+     * @param cacheName the name of the region.
+     * @param expiring whether the entries expire, or only leave the region when it is full.
+     * @return the configuration.
+     */
+    javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName, boolean expiring) {
+        ApplicationProperties.Cache.Region region = regions.getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder();
+        if (region.getHeapSize() != null) {
+            resourcePools = resourcePools.heap(region.getHeapSize().toBytes(), MemoryUnit.B);
+        } else {
+            long heapEntries = region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries();
+            resourcePools = resourcePools.heap(heapEntries, EntryUnit.ENTRIES);
+        }
+        if (region.getOffheapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffheapSize().toBytes(), MemoryUnit.B);
+        }
+        ExpiryPolicy<Object, Object> expiry;
+        if (!expiring) {
+            expiry = ExpiryPolicyBuilder.noExpiration();
+        } else if (region.getTimeToIdle() != null) {
+            expiry = ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle());
+        } else if (region.getTimeToLive() != null) {
+            expiry = ExpiryPolicyBuilder.timeToLiveExpiration(region.getTimeToLive());
+        } else {
+            expiry = ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds()));
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+            Object.class,
+            Object.class,
+            resourcePools
+        ).withExpiry(expiry);
+        if (region.getOffheapSize() != null) {
+            // The off-heap tier stores serialized copies, and Ehcache has no default serializer for Object
+            CompactCacheSerializer serializer = new CompactCacheSerializer(getClass().getClassLoader());
+            builder = builder.withKeySerializer(serializer).withValueSerializer(serializer);
         }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
     }
 
     @Autowired(required = false)
@@ -0,0 +1,113 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.management.SecurityMetersService;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Decoder remembering the tokens it has already verified until they expire, so that the clients sending the same token with
+ * each of their requests have it parsed and its signature checked once. The authorities of the token are converted once as
+ * well, and handed to the {@link org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter}
+ * with the {@link VerifiedJwt}.
+ * <p>
+ * The tokens are kept by their SHA-256 digest, so that the cache does not hold usable credentials. Once it is full, the
+ * expired tokens are dropped, then arbitrary ones.
+ */
+class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    private final Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+
+    private final int maxEntries;
+
+    private final SecurityMetersService metersService;
+
+    private final ConcurrentMap<String, VerifiedJwt> verifiedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * A verified token, along with its converted authorities.
+     */
+    static class VerifiedJwt extends Jwt {
+
+        private final transient Collection<GrantedAuthority> authorities;
+
+        VerifiedJwt(Jwt jwt, Collection<GrantedAuthority> authorities) {
+            super(jwt.getTokenValue(), jwt.getIssuedAt(), jwt.getExpiresAt(), jwt.getHeaders(), jwt.getClaims());
+            this.authorities = List.copyOf(authorities);
+        }
+
+        Collection<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+
+    CachingJwtDecoder(
+        JwtDecoder delegate,
+        Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter,
+        int maxEntries,
+        SecurityMetersService metersService
+    ) {
+        this.delegate = delegate;
+        this.authoritiesConverter = authoritiesConverter;
+        this.maxEntries = maxEntries;
+        this.metersService = metersService;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String digest = digest(token);
+        Instant now = Instant.now();
+        VerifiedJwt verified = verifiedTokens.get(digest);
+        if (verified != null) {
+            if (now.isBefore(verified.getExpiresAt())) {
+                metersService.trackVerifiedTokenHit();
+                return verified;
+            }
+            verifiedTokens.remove(digest, verified);
+        }
+        metersService.trackVerifiedTokenMiss();
+        Jwt jwt = delegate.decode(token);
+        // The tokens without expiry, or accepted within the clock skew past it, are verified each time
+        if (jwt.getExpiresAt() == null || !now.isBefore(jwt.getExpiresAt())) {
+            return jwt;
+        }
+        verified = new VerifiedJwt(jwt, authoritiesConverter.convert(jwt));
+        if (verifiedTokens.size() >= maxEntries) {
+            evict(now);
+        }
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    private void evict(Instant now) {
+        verifiedTokens.values().removeIf(verified -> !now.isBefore(verified.getExpiresAt()));
+        // Down to 90% of the entries, for the next tokens not to scan them all again
+        Iterator<String> digests = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() >= maxEntries - maxEntries / 10 && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+
+    static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.mycompany.myapp.config;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+/**
+ * Serializer of the second level cache entries stored off-heap, more compact than Java serialization.
+ * <p>
+ * With {@code hibernate.cache.use_structured_entries} the state of an entity is cached as a map of property names to
+ * values, and with the {@code simple} keys factory its key is its id: both are written as tagged values, with variable
+ * length numbers and no class descriptors. The property and entity names are written as indexes into a table kept by
+ * the serializer, which is enough as the off-heap tier does not outlive it. Any other value, such as the item wrapping
+ * an entity state in a read-write region, falls back to Java serialization, inside which the entity states are still
+ * written compactly.
+ */
+final class CompactCacheSerializer implements Serializer<Object> {
+
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte INTEGER = 2;
+    private static final byte TRUE = 3;
+    private static final byte FALSE = 4;
+    private static final byte STRING = 5;
+    private static final byte INSTANT = 6;
+    private static final byte ENTITY_STATE = 7;
+    private static final byte SERIALIZED = 8;
+    private static final byte NAME = 9;
+
+    // The entry Hibernate adds to every structured entity state
+    private static final String SUBCLASS_KEY = "_subclass";
+
+    private final ClassLoader classLoader;
+
+    private final Map<String, Integer> nameIndexes = new ConcurrentHashMap<>();
+
+    private final List<String> names = new CopyOnWriteArrayList<>();
+
+    CompactCacheSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public ByteBuffer serialize(Object object) throws SerializerException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (isSimple(object) || isEntityState(object)) {
+                writeSimple(out, object);
+            } else {
+                out.writeByte(SERIALIZED);
+                try (ObjectOutputStream objectOut = new CompactingObjectOutputStream(out)) {
+                    objectOut.writeObject(object);
+                }
+            }
+        } catch (IOException e) {
+            throw new SerializerException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    @Override
+    public Object read(ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+        byte[] bytes = new byte[binary.remaining()];
+        binary.get(bytes);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte tag = in.readByte();
+            if (tag != SERIALIZED) {
+                return readSimple(in, tag);
+            }
+            try (ObjectInputStream objectIn = new ClassLoaderObjectInputStream(in)) {
+                return objectIn.readObject();
+            }
+        } catch (IOException e) {
+            throw new SerializerException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object, ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+        return object.equals(read(binary));
+    }
+
+    private static boolean isSimple(Object value) {
+        return (
+            value == null ||
+            value instanceof Long ||
+            value instanceof Integer ||
+            value instanceof Boolean ||
+            value instanceof String ||
+            value instanceof Instant
+        );
+    }
+
+    private static boolean isEntityState(Object value) {
+        if (!(value instanceof HashMap<?, ?> map) || !map.containsKey(SUBCLASS_KEY)) {
+            return false;
+        }
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String) || !isSimple(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeSimple(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Long longValue) {
+            out.writeByte(LONG);
+            writeVarLong(out, longValue);
+        } else if (value instanceof Integer intValue) {
+            out.writeByte(INTEGER);
+            writeVarLong(out, intValue);
+        } else if (value instanceof Boolean booleanValue) {
+            out.writeByte(booleanValue ? TRUE : FALSE);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Instant instant) {
+            out.writeByte(INSTANT);
+            writeVarLong(out, instant.getEpochSecond());
+            writeVarLong(out, instant.getNano());
+        } else {
+            Map<?, ?> state = (Map<?, ?>) value;
+            out.writeByte(ENTITY_STATE);
+            writeVarLong(out, state.size());
+            for (Map.Entry<?, ?> entry : state.entrySet()) {
+                writeVarLong(out, nameIndex((String) entry.getKey()));
+                if (SUBCLASS_KEY.equals(entry.getKey()) && entry.getValue() instanceof String subclass) {
+                    out.writeByte(NAME);
+                    writeVarLong(out, nameIndex(subclass));
+                } else {
+                    writeSimple(out, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private Object readSimple(DataInput in, byte tag) throws IOException {
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return readVarLong(in);
+            case INTEGER:
+                return (int) readVarLong(in);
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case STRING:
+                return readString(in);
+            case INSTANT:
+                return Instant.ofEpochSecond(readVarLong(in), readVarLong(in));
+            case NAME:
+                return names.get((int) readVarLong(in));
+            case ENTITY_STATE:
+                int size = (int) readVarLong(in);
+                Map<String, Object> state = new HashMap<>(size + 1, 1f);
+                for (int i = 0; i < size; i++) {
+                    String key = names.get((int) readVarLong(in));
+                    state.put(key, readSimple(in, in.readByte()));
+                }
+                return state;
+            default:
+                throw new StreamCorruptedException("Unknown cache value tag " + tag);
+        }
+    }
+
+    private int nameIndex(String name) {
+        Integer index = nameIndexes.get(name);
+        if (index != null) {
+            return index;
+        }
+        synchronized (names) {
+            return nameIndexes.computeIfAbsent(name, added -> {
+                names.add(added);
+                return names.size() - 1;
+            });
+        }
+    }
+
+    private static void writeString(DataOutput out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Zigzag encoded, seven bits per byte: ids, versions and sequences take 2 to 5 bytes instead of 8
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long zigZag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /**
+     * An entity state inside a Java serialized value, holding its compact form.
+     */
+    public static final class EntityState implements Externalizable {
+
+        private static final long serialVersionUID = 1L;
+
+        private byte[] bytes;
+
+        public EntityState() {}
+
+        private EntityState(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            bytes = new byte[(int) readVarLong(in)];
+            in.readFully(bytes);
+        }
+    }
+
+    private class CompactingObjectOutputStream extends ObjectOutputStream {
+
+        private CompactingObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (!isEntityState(obj)) {
+                return obj;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                writeSimple(out, obj);
+            }
+            return new EntityState(bytes.toByteArray());
+        }
+    }
+
+    private class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        private ClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (!(obj instanceof EntityState entityState)) {
+                return obj;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(entityState.bytes))) {
+                return readSimple(in, in.readByte());
+            }
+        }
+    }
+}
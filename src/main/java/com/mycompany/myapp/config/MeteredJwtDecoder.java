@@ -0,0 +1,118 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.management.SecurityMetersService.TokenFailure;
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jwt.JWTParser;
+import java.text.ParseException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * Decoder timing the decoding of the tokens, and counting the rejected ones by cause and algorithm.
+ * <p>
+ * The causes are told apart by the Nimbus exceptions that {@link org.springframework.security.oauth2.jwt.NimbusJwtDecoder}
+ * wraps, and by the error codes of the failed validations, which {@link #jwtValidator()} makes specific, rather than by
+ * their messages. The algorithm is the one in the header of the token when it is a known one, else the one expected.
+ */
+class MeteredJwtDecoder implements JwtDecoder {
+
+    /**
+     * The error code of the tokens used outside of their validity period.
+     */
+    static final String EXPIRED_TOKEN_ERROR_CODE = "expired_token";
+
+    private final JwtDecoder delegate;
+
+    private final String algorithm;
+
+    private final SecurityMetersService metersService;
+
+    MeteredJwtDecoder(JwtDecoder delegate, String algorithm, SecurityMetersService metersService) {
+        this.delegate = delegate;
+        this.algorithm = algorithm;
+        this.metersService = metersService;
+    }
+
+    /**
+     * The validator of the tokens decoded, which checks their validity period as the default one does, failing with the
+     * {@link #EXPIRED_TOKEN_ERROR_CODE}.
+     *
+     * @return the validator.
+     */
+    static OAuth2TokenValidator<Jwt> jwtValidator() {
+        JwtTimestampValidator timestampValidator = new JwtTimestampValidator();
+        return jwt -> {
+            OAuth2TokenValidatorResult result = timestampValidator.validate(jwt);
+            if (!result.hasErrors()) {
+                return result;
+            }
+            return OAuth2TokenValidatorResult.failure(
+                result
+                    .getErrors()
+                    .stream()
+                    .map(error -> new OAuth2Error(EXPIRED_TOKEN_ERROR_CODE, error.getDescription(), error.getUri()))
+                    .toList()
+            );
+        };
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        try {
+            Jwt jwt = delegate.decode(token);
+            metersService.trackTokenDecoded(System.nanoTime() - start);
+            return jwt;
+        } catch (JwtException e) {
+            metersService.trackTokenRejected(failure(e), algorithm(token), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    static TokenFailure failure(JwtException e) {
+        if (e instanceof JwtValidationException validationException) {
+            boolean expired = validationException
+                .getErrors()
+                .stream()
+                .anyMatch(error -> EXPIRED_TOKEN_ERROR_CODE.equals(error.getErrorCode()));
+            return expired ? TokenFailure.EXPIRED : TokenFailure.MALFORMED;
+        }
+        Throwable cause = e.getCause();
+        if (cause instanceof BadJWSException) {
+            return TokenFailure.INVALID_SIGNATURE;
+        }
+        if (cause == null || cause instanceof BadJOSEException || cause instanceof JOSEException) {
+            // Unsigned tokens, or signed with another algorithm or key type than expected
+            return TokenFailure.UNSUPPORTED;
+        }
+        // Not a JWT, or with headers or claims that cannot be parsed
+        return TokenFailure.MALFORMED;
+    }
+
+    private String algorithm(String token) {
+        try {
+            Algorithm tokenAlgorithm = JWTParser.parse(token).getHeader().getAlgorithm();
+            if (
+                Algorithm.NONE.equals(tokenAlgorithm) ||
+                JWSAlgorithm.Family.HMAC_SHA.contains(tokenAlgorithm) ||
+                JWSAlgorithm.Family.SIGNATURE.contains(tokenAlgorithm)
+            ) {
+                return tokenAlgorithm.getName();
+            }
+        } catch (ParseException e) {
+            // Counted with the expected algorithm, as any token of an unknown one, which keeps the number of meters bounded
+        }
+        return algorithm;
+    }
+}
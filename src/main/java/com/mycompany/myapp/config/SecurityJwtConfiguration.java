@@ -6,6 +6,7 @@ import static com.mycompany.myapp.security.SecurityUtils.JWT_ALGORITHM;
 import com.mycompany.myapp.management.SecurityMetersService;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,24 +26,20 @@ public class SecurityJwtConfiguration {
     private String jwtKey;
 
     @Bean
-    public JwtDecoder jwtDecoder(SecurityMetersService metersService) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder.decode(token);
-            } catch (Exception e) {
-                if (e.getMessage().contains("Invalid signature")) {
-                    metersService.trackTokenInvalidSignature();
-                } else if (e.getMessage().contains("Jwt expired at")) {
-                    metersService.trackTokenExpired();
-                } else if (e.getMessage().contains("Invalid JWT serialization")) {
-                    metersService.trackTokenMalformed();
-                } else if (e.getMessage().contains("Invalid unsecured/JWS/JWE")) {
-                    metersService.trackTokenMalformed();
-                }
-                throw e;
-            }
-        };
+    public SecurityMetersService securityMetersService(MeterRegistry meterRegistry) {
+        return new SecurityMetersService(meterRegistry, JWT_ALGORITHM.getName());
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(SecurityMetersService metersService, ApplicationProperties applicationProperties) {
+        NimbusJwtDecoder nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
+        nimbusJwtDecoder.setJwtValidator(MeteredJwtDecoder.jwtValidator());
+        JwtDecoder jwtDecoder = new MeteredJwtDecoder(nimbusJwtDecoder, JWT_ALGORITHM.getName(), metersService);
+        ApplicationProperties.VerifiedTokenCache verifiedTokenCache = applicationProperties.getVerifiedTokenCache();
+        if (!verifiedTokenCache.isEnabled()) {
+            return jwtDecoder;
+        }
+        return new CachingJwtDecoder(jwtDecoder, grantedAuthoritiesConverter(), verifiedTokenCache.getMaxEntries(), metersService);
     }
 
     @Bean
@@ -52,15 +49,25 @@ public class SecurityJwtConfiguration {
 
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        grantedAuthoritiesConverter.setAuthorityPrefix("");
-        grantedAuthoritiesConverter.setAuthoritiesClaimName(AUTHORITIES_KEY);
+        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = grantedAuthoritiesConverter();
 
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        // The tokens verified by CachingJwtDecoder come with their authorities already converted
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwt ->
+            jwt instanceof CachingJwtDecoder.VerifiedJwt verifiedJwt
+                ? verifiedJwt.getAuthorities()
+                : grantedAuthoritiesConverter.convert(jwt)
+        );
         return jwtAuthenticationConverter;
     }
 
+    private JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter() {
+        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        grantedAuthoritiesConverter.setAuthorityPrefix("");
+        grantedAuthoritiesConverter.setAuthoritiesClaimName(AUTHORITIES_KEY);
+        return grantedAuthoritiesConverter;
+    }
+
     private SecretKey getSecretKey() {
         byte[] keyBytes = Base64.from(jwtKey).decode();
         return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
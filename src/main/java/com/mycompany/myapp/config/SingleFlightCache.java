@@ -0,0 +1,276 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Cache running a single load at a time per missing key: the callers asking for a key that is being loaded wait for that
+ * load rather than running their own.
+ * <p>
+ * Only {@link #get(Object, Callable)} loads, which {@code @Cacheable(sync = true)} methods call. Unlike the JCache one, it
+ * runs the loader outside of the lock of the entry, and counts the misses that waited.
+ * <p>
+ * The keys loading a {@code null} value can be kept in a separate unknown keys cache, bounded and expiring on its own: the
+ * lookups of keys that do not exist then neither run a query each nor push the existing ones out of the cache.
+ * <p>
+ * With a refresh delay, the entries read once older than it are reloaded on the given executor while the callers keep
+ * getting the current value, so that the entries read often enough never expire. The entries are then stored along with
+ * their load time. A refresh calls the loader of the read that found the entry old, after that read returned and on an
+ * executor thread: without the security context, transaction or request of its caller. It only suits the caches whose
+ * loaders need none of them, such as the user lookups of {@code UserRepository}, which open their own transaction.
+ */
+public class SingleFlightCache implements Cache {
+
+    public static final String LOADS_METER_NAME = "cache.loads";
+    public static final String LOADS_METER_DESCRIPTION =
+        "Indicates the number of cache misses, loaded or waiting for a load in flight, and of background refreshes.";
+    public static final String LOADS_METER_RESULT_DIMENSION = "result";
+
+    private final Logger log = LoggerFactory.getLogger(SingleFlightCache.class);
+
+    private final Cache delegate;
+
+    private final Cache unknownKeys;
+
+    private final Duration refreshAfter;
+
+    private final Executor refreshExecutor;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    private final Counter loadedCounter;
+
+    private final Counter coalescedCounter;
+
+    private final Counter refreshedCounter;
+
+    /**
+     * A value along with the time it was loaded at.
+     */
+    record Loaded(Object value, long loadedAt) implements Serializable {}
+
+    /**
+     * @param delegate the cache of the loaded values.
+     * @param unknownKeys the cache of the keys loading a {@code null} value, or {@code null} to keep them in the delegate.
+     * @param registry the registry of the load meters.
+     */
+    public SingleFlightCache(Cache delegate, Cache unknownKeys, MeterRegistry registry) {
+        this(delegate, unknownKeys, null, null, registry);
+    }
+
+    /**
+     * @param delegate the cache of the loaded values.
+     * @param unknownKeys the cache of the keys loading a {@code null} value, or {@code null} to keep them in the delegate.
+     * @param refreshAfter the age of the entries reloaded in the background when read, or {@code null} not to refresh them.
+     * @param refreshExecutor the executor of the background reloads.
+     * @param registry the registry of the load meters.
+     */
+    public SingleFlightCache(
+        Cache delegate,
+        Cache unknownKeys,
+        Duration refreshAfter,
+        Executor refreshExecutor,
+        MeterRegistry registry
+    ) {
+        this.delegate = delegate;
+        this.unknownKeys = unknownKeys;
+        this.refreshAfter = refreshAfter;
+        this.refreshExecutor = refreshExecutor;
+        this.loadedCounter = loadsCounter(registry, "loaded");
+        this.coalescedCounter = loadsCounter(registry, "coalesced");
+        this.refreshedCounter = loadsCounter(registry, "refreshed");
+    }
+
+    private Counter loadsCounter(MeterRegistry registry, String result) {
+        return Counter
+            .builder(LOADS_METER_NAME)
+            .description(LOADS_METER_DESCRIPTION)
+            .tag("cache", delegate.getName())
+            .tag(LOADS_METER_RESULT_DIMENSION, result)
+            .register(registry);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = lookup(key);
+        if (cached != null) {
+            if (cached.get() instanceof Loaded loaded) {
+                if (refreshAfter != null && System.currentTimeMillis() - loaded.loadedAt() >= refreshAfter.toMillis()) {
+                    refresh(key, valueLoader);
+                }
+                return (T) loaded.value();
+            }
+            return (T) cached.get();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            coalescedCounter.increment();
+            return (T) await(key, valueLoader, inFlight);
+        }
+        // The previous load of the key may have completed between the cache lookup and now
+        cached = lookup(key);
+        if (cached != null) {
+            Object value = unwrap(cached.get());
+            loads.remove(key, load);
+            load.complete(value);
+            return (T) value;
+        }
+        loadedCounter.increment();
+        return (T) load(key, valueLoader, load);
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        refreshedCounter.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, valueLoader, load);
+                } catch (ValueRetrievalException e) {
+                    // The current value is served until it expires, or a later read refreshes it
+                    log.warn("Could not refresh {} of cache {}", key, getName(), e.getCause());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            log.warn("Could not refresh {} of cache {}: {}", key, getName(), e.getMessage());
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader, CompletableFuture<Object> load) {
+        try {
+            Object value = valueLoader.call();
+            if (value == null && unknownKeys != null) {
+                // Only kept apart: the key may be in the delegate when a refresh finds that it no longer exists
+                delegate.evict(key);
+                unknownKeys.put(key, null);
+            } else {
+                delegate.put(key, wrap(value));
+            }
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private ValueWrapper lookup(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached == null && unknownKeys != null) {
+            cached = unknownKeys.get(key);
+        }
+        return cached;
+    }
+
+    private Object wrap(Object value) {
+        return refreshAfter != null ? new Loaded(value, System.currentTimeMillis()) : value;
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof Loaded loaded ? loaded.value() : value;
+    }
+
+    private static ValueWrapper unwrap(ValueWrapper cached) {
+        return cached != null && cached.get() instanceof Loaded loaded ? new SimpleValueWrapper(loaded.value()) : cached;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return unwrap(lookup(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (unknownKeys != null) {
+            unknownKeys.evict(key);
+        }
+        delegate.put(key, wrap(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return unwrap(delegate.putIfAbsent(key, wrap(value)));
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (unknownKeys != null) {
+            unknownKeys.evict(key);
+        }
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean unknown = unknownKeys != null && unknownKeys.evictIfPresent(key);
+        return delegate.evictIfPresent(key) || unknown;
+    }
+
+    @Override
+    public void clear() {
+        if (unknownKeys != null) {
+            unknownKeys.clear();
+        }
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean unknown = unknownKeys != null && unknownKeys.invalidate();
+        return delegate.invalidate() || unknown;
+    }
+}
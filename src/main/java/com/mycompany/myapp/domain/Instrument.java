@@ -18,13 +18,23 @@ public class Instrument implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    // allocationSize must match the increment of sequence_generator in the initial Liquibase changelog:
+    // ids are then handed out by the pooled optimizer, with one nextval call per 50 inserts
+    @SequenceGenerator(name = "sequenceGenerator", sequenceName = "sequence_generator", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
     @Column(name = "name")
     private String name;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Taken from next_instrument_change_sequence() on every write, so that a replica can ask for the changes since a value
+    @Column(name = "change_sequence")
+    private Long changeSequence;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -53,6 +63,32 @@ public class Instrument implements Serializable {
         this.name = name;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Instrument version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSequence() {
+        return this.changeSequence;
+    }
+
+    public Instrument changeSequence(Long changeSequence) {
+        this.setChangeSequence(changeSequence);
+        return this;
+    }
+
+    public void setChangeSequence(Long changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -78,6 +114,8 @@ public class Instrument implements Serializable {
         return "Instrument{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
+            ", version=" + getVersion() +
+            ", changeSequence=" + getChangeSequence() +
             "}";
     }
 }
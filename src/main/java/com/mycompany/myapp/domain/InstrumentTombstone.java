@@ -0,0 +1,73 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * The trace of a deleted {@link Instrument}, kept so that the deletion can be replayed from the change sequence.
+ */
+@Entity
+@Table(name = "instrument_tombstone")
+public class InstrumentTombstone implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "instrument_id")
+    private Long instrumentId;
+
+    @Column(name = "change_sequence", nullable = false)
+    private Long changeSequence;
+
+    public Long getInstrumentId() {
+        return this.instrumentId;
+    }
+
+    public InstrumentTombstone instrumentId(Long instrumentId) {
+        this.setInstrumentId(instrumentId);
+        return this;
+    }
+
+    public void setInstrumentId(Long instrumentId) {
+        this.instrumentId = instrumentId;
+    }
+
+    public Long getChangeSequence() {
+        return this.changeSequence;
+    }
+
+    public InstrumentTombstone changeSequence(Long changeSequence) {
+        this.setChangeSequence(changeSequence);
+        return this;
+    }
+
+    public void setChangeSequence(Long changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InstrumentTombstone)) {
+            return false;
+        }
+        return getInstrumentId() != null && getInstrumentId().equals(((InstrumentTombstone) o).getInstrumentId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentTombstone{" +
+            "instrumentId=" + getInstrumentId() +
+            ", changeSequence=" + getChangeSequence() +
+            "}";
+    }
+}
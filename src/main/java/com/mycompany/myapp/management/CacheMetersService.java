@@ -0,0 +1,119 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.function.Function;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Publishes the cache meters that the JCache meters registered by Spring Boot for every cache do not: the average get
+ * latency and the size of each cache, and the requests and puts of each Hibernate entity and collection region.
+ * <p>
+ * The JCache statistics are read from the MBeans of the caches, which only count once their statistics are enabled, the
+ * sizes from the Ehcache statistics, which JCache does not expose, and the region ones from the Hibernate statistics.
+ * It is created by {@link com.mycompany.myapp.config.CacheConfiguration}, along with the caches.
+ */
+public class CacheMetersService {
+
+    public static final String GET_LATENCY_METER_NAME = "cache.get.latency";
+    public static final String GET_LATENCY_METER_DESCRIPTION = "Indicates the average duration of the gets of the cache.";
+    public static final String GET_LATENCY_METER_BASE_UNIT = "seconds";
+    public static final String CACHE_DIMENSION = "cache";
+
+    public static final String REQUESTS_METER_NAME = "cache.entity.requests";
+    public static final String REQUESTS_METER_DESCRIPTION =
+        "Indicates the number of lookups of cached entities and collections by Hibernate, hit or missed.";
+    public static final String REQUESTS_METER_BASE_UNIT = CacheRegionMeters.REQUESTS_METER_BASE_UNIT;
+    public static final String REQUESTS_METER_RESULT_DIMENSION = CacheRegionMeters.REQUESTS_METER_RESULT_DIMENSION;
+
+    public static final String PUTS_METER_NAME = "cache.entity.puts";
+    public static final String PUTS_METER_DESCRIPTION = "Indicates the number of entities and collections put in the cache by Hibernate.";
+
+    public static final String SIZE_METER_NAME = "cache.size";
+    public static final String SIZE_METER_DESCRIPTION = "Indicates the number of entries held in the cache.";
+    public static final String SIZE_METER_BASE_UNIT = "entries";
+
+    public static final String REGION_DIMENSION = CacheRegionMeters.REGION_DIMENSION;
+
+    /**
+     * @param cacheStatistics the Ehcache statistics of a cache, by name, or null for a cache that Ehcache does not hold.
+     */
+    public CacheMetersService(
+        MeterRegistry registry,
+        CacheManager cacheManager,
+        Function<String, CacheStatistics> cacheStatistics,
+        Statistics statistics,
+        Collection<String> entityRegions
+    ) {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            CacheStatisticsMXBean cacheMXBean = JMX.newMXBeanProxy(
+                mBeanServer,
+                statisticsObjectName(cacheManager, cacheName),
+                CacheStatisticsMXBean.class
+            );
+            // The JCache statistics are in microseconds
+            Gauge
+                .builder(GET_LATENCY_METER_NAME, cacheMXBean, bean -> bean.getAverageGetTime() / 1_000_000d)
+                .baseUnit(GET_LATENCY_METER_BASE_UNIT)
+                .description(GET_LATENCY_METER_DESCRIPTION)
+                .tag(CACHE_DIMENSION, cacheName)
+                .register(registry);
+            CacheStatistics ehcacheStatistics = cacheStatistics.apply(cacheName);
+            if (ehcacheStatistics != null) {
+                Gauge
+                    .builder(SIZE_METER_NAME, ehcacheStatistics, CacheMetersService::size)
+                    .baseUnit(SIZE_METER_BASE_UNIT)
+                    .description(SIZE_METER_DESCRIPTION)
+                    .tag(CACHE_DIMENSION, cacheName)
+                    .register(registry);
+            }
+        }
+        for (String region : entityRegions) {
+            // The region does not exist when the second level cache is disabled
+            CacheRegionMeters.register(
+                registry,
+                statistics,
+                region,
+                Statistics::getDomainDataRegionStatistics,
+                REQUESTS_METER_NAME,
+                REQUESTS_METER_DESCRIPTION,
+                PUTS_METER_NAME,
+                PUTS_METER_DESCRIPTION
+            );
+        }
+    }
+
+    /**
+     * The number of entries of a cache: each one is held by its lowest tier, which holds those of the tiers above it too.
+     */
+    private static double size(CacheStatistics cacheStatistics) {
+        return cacheStatistics.getTierStatistics().values().stream().mapToLong(TierStatistics::getMappings).max().orElse(0);
+    }
+
+    /**
+     * The name of the statistics MBean of a cache, as registered by the JCache provider.
+     */
+    static ObjectName statisticsObjectName(CacheManager cacheManager, String cacheName) {
+        try {
+            String cacheManagerName = sanitize(cacheManager.getURI().toString());
+            return new ObjectName("javax.cache:type=CacheStatistics,CacheManager=" + cacheManagerName + ",Cache=" + sanitize(cacheName));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid cache name " + cacheName, e);
+        }
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[,:=\n]", ".");
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Registers the hits, misses and puts of a Hibernate cache region, read from the Hibernate statistics, for
+ * {@link CacheMetersService} and {@link QueryCacheMetersService}.
+ */
+final class CacheRegionMeters {
+
+    static final String REQUESTS_METER_BASE_UNIT = "requests";
+    static final String REQUESTS_METER_RESULT_DIMENSION = "result";
+    static final String REGION_DIMENSION = "region";
+
+    private CacheRegionMeters() {}
+
+    /**
+     * Register the meters of a region.
+     *
+     * @param regionLookup how to find the statistics of the region: they may be null, or the lookup throw
+     *                     {@link IllegalArgumentException}, while the region does not exist.
+     */
+    static void register(
+        MeterRegistry registry,
+        Statistics statistics,
+        String region,
+        BiFunction<Statistics, String, CacheRegionStatistics> regionLookup,
+        String requestsMeterName,
+        String requestsMeterDescription,
+        String putsMeterName,
+        String putsMeterDescription
+    ) {
+        FunctionCounter
+            .builder(requestsMeterName, statistics, regionStatistic(region, regionLookup, CacheRegionStatistics::getHitCount))
+            .baseUnit(REQUESTS_METER_BASE_UNIT)
+            .description(requestsMeterDescription)
+            .tag(REGION_DIMENSION, region)
+            .tag(REQUESTS_METER_RESULT_DIMENSION, "hit")
+            .register(registry);
+        FunctionCounter
+            .builder(requestsMeterName, statistics, regionStatistic(region, regionLookup, CacheRegionStatistics::getMissCount))
+            .baseUnit(REQUESTS_METER_BASE_UNIT)
+            .description(requestsMeterDescription)
+            .tag(REGION_DIMENSION, region)
+            .tag(REQUESTS_METER_RESULT_DIMENSION, "miss")
+            .register(registry);
+        FunctionCounter
+            .builder(putsMeterName, statistics, regionStatistic(region, regionLookup, CacheRegionStatistics::getPutCount))
+            .description(putsMeterDescription)
+            .tag(REGION_DIMENSION, region)
+            .register(registry);
+    }
+
+    private static ToDoubleFunction<Statistics> regionStatistic(
+        String region,
+        BiFunction<Statistics, String, CacheRegionStatistics> regionLookup,
+        ToLongFunction<CacheRegionStatistics> statistic
+    ) {
+        return statistics -> {
+            try {
+                CacheRegionStatistics regionStatistics = regionLookup.apply(statistics, region);
+                return regionStatistics != null ? Math.max(statistic.applyAsLong(regionStatistics), 0) : 0;
+            } catch (IllegalArgumentException e) {
+                return 0;
+            }
+        };
+    }
+}
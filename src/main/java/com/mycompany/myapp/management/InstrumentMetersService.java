@@ -0,0 +1,129 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Service;
+
+@Service
+public class InstrumentMetersService {
+
+    public static final String BATCH_CHUNKS_METER_NAME = "instrument.batch.chunks";
+    public static final String BATCH_CHUNKS_METER_DESCRIPTION =
+        "Indicates the time spent writing each chunk of a bulk instrument upsert.";
+    public static final String BATCH_CHUNKS_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String BATCH_ROWS_METER_NAME = "instrument.batch.rows";
+    public static final String BATCH_ROWS_METER_DESCRIPTION = "Indicates the number of instruments processed by bulk upserts.";
+    public static final String BATCH_ROWS_METER_BASE_UNIT = "rows";
+    public static final String BATCH_ROWS_METER_RESULT_DIMENSION = "result";
+
+    public static final String FEED_FANOUT_METER_NAME = "instrument.feed.fanout";
+    public static final String FEED_FANOUT_METER_DESCRIPTION =
+        "Indicates the time between the commit of an instrument change and its delivery to a feed subscriber.";
+
+    public static final String FEED_EVENTS_METER_NAME = "instrument.feed.events";
+    public static final String FEED_EVENTS_METER_DESCRIPTION = "Indicates the number of instrument changes handed to feed subscribers.";
+    public static final String FEED_EVENTS_METER_BASE_UNIT = "events";
+    public static final String FEED_EVENTS_METER_RESULT_DIMENSION = "result";
+
+    public static final String FEED_SUBSCRIBERS_METER_NAME = "instrument.feed.subscribers";
+    public static final String FEED_SUBSCRIBERS_METER_DESCRIPTION = "Indicates the number of subscribers of the instrument feed.";
+
+    public static final String FEED_SLOW_CONSUMERS_METER_NAME = "instrument.feed.slow.consumers";
+    public static final String FEED_SLOW_CONSUMERS_METER_DESCRIPTION =
+        "Indicates the number of feed subscribers disconnected because their buffer was full.";
+
+    private final Timer successfulChunkTimer;
+    private final Timer failedChunkTimer;
+
+    private final Counter createdRowsCounter;
+    private final Counter updatedRowsCounter;
+    private final Counter notFoundRowsCounter;
+    private final Counter failedRowsCounter;
+
+    private final Timer feedFanoutTimer;
+
+    private final Counter deliveredEventsCounter;
+    private final Counter droppedEventsCounter;
+
+    private final AtomicInteger feedSubscribers = new AtomicInteger();
+
+    private final Counter slowConsumersCounter;
+
+    public InstrumentMetersService(MeterRegistry registry) {
+        this.successfulChunkTimer = batchChunksTimerForOutcomeBuilder("success").register(registry);
+        this.failedChunkTimer = batchChunksTimerForOutcomeBuilder("failure").register(registry);
+        this.createdRowsCounter = batchRowsCounterForResultBuilder("created").register(registry);
+        this.updatedRowsCounter = batchRowsCounterForResultBuilder("updated").register(registry);
+        this.notFoundRowsCounter = batchRowsCounterForResultBuilder("not-found").register(registry);
+        this.failedRowsCounter = batchRowsCounterForResultBuilder("failed").register(registry);
+        this.feedFanoutTimer = Timer.builder(FEED_FANOUT_METER_NAME).description(FEED_FANOUT_METER_DESCRIPTION).register(registry);
+        this.deliveredEventsCounter = feedEventsCounterForResultBuilder("delivered").register(registry);
+        this.droppedEventsCounter = feedEventsCounterForResultBuilder("dropped").register(registry);
+        Gauge
+            .builder(FEED_SUBSCRIBERS_METER_NAME, feedSubscribers, AtomicInteger::get)
+            .description(FEED_SUBSCRIBERS_METER_DESCRIPTION)
+            .register(registry);
+        this.slowConsumersCounter = Counter
+            .builder(FEED_SLOW_CONSUMERS_METER_NAME)
+            .description(FEED_SLOW_CONSUMERS_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    private Timer.Builder batchChunksTimerForOutcomeBuilder(String outcome) {
+        return Timer
+            .builder(BATCH_CHUNKS_METER_NAME)
+            .description(BATCH_CHUNKS_METER_DESCRIPTION)
+            .tag(BATCH_CHUNKS_METER_OUTCOME_DIMENSION, outcome);
+    }
+
+    private Counter.Builder batchRowsCounterForResultBuilder(String result) {
+        return Counter
+            .builder(BATCH_ROWS_METER_NAME)
+            .baseUnit(BATCH_ROWS_METER_BASE_UNIT)
+            .description(BATCH_ROWS_METER_DESCRIPTION)
+            .tag(BATCH_ROWS_METER_RESULT_DIMENSION, result);
+    }
+
+    private Counter.Builder feedEventsCounterForResultBuilder(String result) {
+        return Counter
+            .builder(FEED_EVENTS_METER_NAME)
+            .baseUnit(FEED_EVENTS_METER_BASE_UNIT)
+            .description(FEED_EVENTS_METER_DESCRIPTION)
+            .tag(FEED_EVENTS_METER_RESULT_DIMENSION, result);
+    }
+
+    public void trackBatchChunk(long durationNanos, int created, int updated, int notFound) {
+        this.successfulChunkTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        this.createdRowsCounter.increment(created);
+        this.updatedRowsCounter.increment(updated);
+        this.notFoundRowsCounter.increment(notFound);
+    }
+
+    public void trackFailedBatchChunk(long durationNanos, int size) {
+        this.failedChunkTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        this.failedRowsCounter.increment(size);
+    }
+
+    public void trackFeedDelivery(long latencyNanos) {
+        this.feedFanoutTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        this.deliveredEventsCounter.increment();
+    }
+
+    public void trackFeedSubscribed() {
+        this.feedSubscribers.incrementAndGet();
+    }
+
+    public void trackFeedUnsubscribed() {
+        this.feedSubscribers.decrementAndGet();
+    }
+
+    public void trackFeedSlowConsumer(int droppedEvents) {
+        this.slowConsumersCounter.increment();
+        this.droppedEventsCounter.increment(droppedEvents);
+    }
+}
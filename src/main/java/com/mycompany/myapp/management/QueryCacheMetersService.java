@@ -0,0 +1,42 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Publishes the hits, misses and puts of each Hibernate query cache region, read from the Hibernate statistics.
+ * <p>
+ * The cached queries each have their own region, so a region tells how well its queries are served from the cache.
+ * The meters stay at zero when the statistics or the query cache are disabled. The number of results held in a region
+ * is the {@code cache.size} of its cache, published by {@link CacheMetersService}. It is created by
+ * {@link com.mycompany.myapp.config.CacheConfiguration}, along with the regions.
+ */
+public class QueryCacheMetersService {
+
+    public static final String REQUESTS_METER_NAME = "cache.query.requests";
+    public static final String REQUESTS_METER_DESCRIPTION = "Indicates the number of lookups of cached query results, hit or missed.";
+    public static final String REQUESTS_METER_BASE_UNIT = CacheRegionMeters.REQUESTS_METER_BASE_UNIT;
+    public static final String REQUESTS_METER_RESULT_DIMENSION = CacheRegionMeters.REQUESTS_METER_RESULT_DIMENSION;
+
+    public static final String PUTS_METER_NAME = "cache.query.puts";
+    public static final String PUTS_METER_DESCRIPTION = "Indicates the number of query results put in the cache.";
+
+    public static final String REGION_DIMENSION = CacheRegionMeters.REGION_DIMENSION;
+
+    public QueryCacheMetersService(MeterRegistry registry, Statistics statistics, Collection<String> regions) {
+        for (String region : regions) {
+            // null until the region exists, and when the query cache is disabled
+            CacheRegionMeters.register(
+                registry,
+                statistics,
+                region,
+                Statistics::getQueryRegionStatistics,
+                REQUESTS_METER_NAME,
+                REQUESTS_METER_DESCRIPTION,
+                PUTS_METER_NAME,
+                PUTS_METER_DESCRIPTION
+            );
+        }
+    }
+}
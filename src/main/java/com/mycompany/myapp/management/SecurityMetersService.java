@@ -2,9 +2,19 @@ package com.mycompany.myapp.management;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
-import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-@Service
+/**
+ * Publishes the meters of the tokens presented by the clients: their decoding time, the ones rejected by cause, and the
+ * ones found among the already verified ones.
+ * <p>
+ * The decoding and rejection meters are tagged with the algorithm of the token. The ones of the algorithm the tokens are
+ * signed with are registered upfront, the ones of other algorithms the first time a token uses them. It is created by
+ * {@link com.mycompany.myapp.config.SecurityJwtConfiguration}, which knows that algorithm.
+ */
 public class SecurityMetersService {
 
     public static final String INVALID_TOKENS_METER_NAME = "security.authentication.invalid-tokens";
@@ -12,40 +22,123 @@ public class SecurityMetersService {
         "Indicates validation error count of the tokens presented by the clients.";
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
+    public static final String INVALID_TOKENS_METER_ALGORITHM_DIMENSION = "algorithm";
 
-    private final Counter tokenInvalidSignatureCounter;
-    private final Counter tokenExpiredCounter;
-    private final Counter tokenUnsupportedCounter;
-    private final Counter tokenMalformedCounter;
+    public static final String TOKEN_DECODING_METER_NAME = "security.authentication.token-decoding";
+    public static final String TOKEN_DECODING_METER_DESCRIPTION =
+        "Indicates the time spent parsing, verifying and validating the tokens presented by the clients.";
+    public static final String TOKEN_DECODING_METER_OUTCOME_DIMENSION = "outcome";
+    public static final String TOKEN_DECODING_METER_ALGORITHM_DIMENSION = "algorithm";
 
-    public SecurityMetersService(MeterRegistry registry) {
-        this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
-        this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
-        this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
-        this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+    public static final String VERIFIED_TOKENS_METER_NAME = "security.authentication.verified-tokens";
+    public static final String VERIFIED_TOKENS_METER_DESCRIPTION =
+        "Indicates the number of tokens presented by the clients found among the already verified ones, or not.";
+    public static final String VERIFIED_TOKENS_METER_BASE_UNIT = "requests";
+    public static final String VERIFIED_TOKENS_METER_RESULT_DIMENSION = "result";
+
+    /**
+     * The causes of the rejection of a token.
+     */
+    public enum TokenFailure {
+        INVALID_SIGNATURE("invalid-signature"),
+        EXPIRED("expired"),
+        UNSUPPORTED("unsupported"),
+        MALFORMED("malformed");
+
+        private final String cause;
+
+        TokenFailure(String cause) {
+            this.cause = cause;
+        }
+
+        public String getCause() {
+            return cause;
+        }
     }
 
-    private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
+    private final MeterRegistry registry;
+    private final String algorithm;
+
+    private final Map<TokenFailure, Counter> invalidTokenCounters = new EnumMap<>(TokenFailure.class);
+    private final Map<TokenFailure, Timer> failedDecodingTimers = new EnumMap<>(TokenFailure.class);
+    private final Timer successfulDecodingTimer;
+    private final Counter verifiedTokenHitCounter;
+    private final Counter verifiedTokenMissCounter;
+
+    /**
+     * @param registry the registry of the meters.
+     * @param algorithm the name of the algorithm the tokens are signed with.
+     */
+    public SecurityMetersService(MeterRegistry registry, String algorithm) {
+        this.registry = registry;
+        this.algorithm = algorithm;
+        for (TokenFailure failure : TokenFailure.values()) {
+            invalidTokenCounters.put(failure, invalidTokensCounter(failure, algorithm));
+            failedDecodingTimers.put(failure, decodingTimer(failure.getCause(), algorithm));
+        }
+        this.successfulDecodingTimer = decodingTimer("success", algorithm);
+        this.verifiedTokenHitCounter = verifiedTokensCounterForResultBuilder("hit").register(registry);
+        this.verifiedTokenMissCounter = verifiedTokensCounterForResultBuilder("miss").register(registry);
+    }
+
+    private Counter invalidTokensCounter(TokenFailure failure, String algorithm) {
         return Counter
             .builder(INVALID_TOKENS_METER_NAME)
             .baseUnit(INVALID_TOKENS_METER_BASE_UNIT)
             .description(INVALID_TOKENS_METER_DESCRIPTION)
-            .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
+            .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, failure.getCause())
+            .tag(INVALID_TOKENS_METER_ALGORITHM_DIMENSION, algorithm)
+            .register(registry);
+    }
+
+    private Timer decodingTimer(String outcome, String algorithm) {
+        return Timer
+            .builder(TOKEN_DECODING_METER_NAME)
+            .description(TOKEN_DECODING_METER_DESCRIPTION)
+            .tag(TOKEN_DECODING_METER_OUTCOME_DIMENSION, outcome)
+            .tag(TOKEN_DECODING_METER_ALGORITHM_DIMENSION, algorithm)
+            .register(registry);
+    }
+
+    private Counter.Builder verifiedTokensCounterForResultBuilder(String result) {
+        return Counter
+            .builder(VERIFIED_TOKENS_METER_NAME)
+            .baseUnit(VERIFIED_TOKENS_METER_BASE_UNIT)
+            .description(VERIFIED_TOKENS_METER_DESCRIPTION)
+            .tag(VERIFIED_TOKENS_METER_RESULT_DIMENSION, result);
     }
 
-    public void trackTokenInvalidSignature() {
-        this.tokenInvalidSignatureCounter.increment();
+    /**
+     * Track a token decoded successfully, which is signed with the expected algorithm.
+     *
+     * @param nanos the decoding time.
+     */
+    public void trackTokenDecoded(long nanos) {
+        successfulDecodingTimer.record(nanos, TimeUnit.NANOSECONDS);
     }
 
-    public void trackTokenExpired() {
-        this.tokenExpiredCounter.increment();
+    /**
+     * Track a token rejected while decoding.
+     *
+     * @param failure the cause of the rejection.
+     * @param algorithm the algorithm of the token.
+     * @param nanos the decoding time.
+     */
+    public void trackTokenRejected(TokenFailure failure, String algorithm, long nanos) {
+        if (this.algorithm.equals(algorithm)) {
+            invalidTokenCounters.get(failure).increment();
+            failedDecodingTimers.get(failure).record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            invalidTokensCounter(failure, algorithm).increment();
+            decodingTimer(failure.getCause(), algorithm).record(nanos, TimeUnit.NANOSECONDS);
+        }
     }
 
-    public void trackTokenUnsupported() {
-        this.tokenUnsupportedCounter.increment();
+    public void trackVerifiedTokenHit() {
+        this.verifiedTokenHitCounter.increment();
     }
 
-    public void trackTokenMalformed() {
-        this.tokenMalformedCounter.increment();
+    public void trackVerifiedTokenMiss() {
+        this.verifiedTokenMissCounter.increment();
     }
 }
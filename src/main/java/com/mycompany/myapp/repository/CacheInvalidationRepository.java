@@ -0,0 +1,544 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Repository keeping the local caches of several instances consistent, with PostgreSQL {@code NOTIFY}.
+ * <p>
+ * Each instance broadcasts the cache entries it invalidates once their transaction commits: the second level cache
+ * entries of the entities and collections written through Hibernate, which it collects itself, and the ones given to
+ * the {@code broadcast} methods. They are batched over the flush interval, coalesced, and sent on the
+ * {@value #CHANNEL} channel, which every instance listens to in order to evict the same entries and invalidate the
+ * cached query results over the same tables. Notifications missed while the connection is down cannot be recovered,
+ * so every cache is emptied when it comes back. When more invalidations wait to be sent than the pending limit, they
+ * are replaced by a single one asking the other instances to empty every cache.
+ * <p>
+ * The entities invalidated by the other instances are then published as a {@link RemoteEntityInvalidation}, for the
+ * copies kept outside of Hibernate to follow them.
+ */
+@Repository
+public class CacheInvalidationRepository {
+
+    public static final String CHANNEL = "cache_invalidation";
+
+    // The Spring caches whose entries are broadcast, emptied after missing notifications
+    private static final List<String> BROADCAST_CACHES = List.of(
+        UserRepository.USERS_BY_LOGIN_CACHE,
+        UserRepository.USERS_BY_EMAIL_CACHE,
+        UserRepository.UNKNOWN_USERS_BY_LOGIN_CACHE,
+        UserRepository.UNKNOWN_USERS_BY_EMAIL_CACHE
+    );
+
+    // Below the 8000 bytes PostgreSQL accepts, leaving room for the origin line
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationRepository.class);
+
+    enum Kind {
+        CACHE,
+        ENTITY,
+        COLLECTION,
+        ALL,
+    }
+
+    /**
+     * An invalidated cache entry: a Spring cache key, an entity id or a collection owner id, or the whole cache or region
+     * when the key is {@code null}.
+     */
+    record Invalidation(Kind kind, String name, String key) {}
+
+    // Every cache and region, once too many invalidations waited to be sent
+    static final Invalidation EVERYTHING = new Invalidation(Kind.ALL, "*", null);
+
+    /**
+     * Published on the listening thread once the second level cache entries of entities written by another instance are
+     * evicted.
+     *
+     * @param entityName the name of the entity, or {@code null} for every entity, after notifications were missed.
+     * @param ids the ids of the written entities, or {@code null} for all of them.
+     */
+    public record RemoteEntityInvalidation(String entityName, Set<Object> ids) {}
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final CacheManager cacheManager;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ApplicationProperties.CacheInvalidation properties;
+
+    // Random per instance, to ignore our own notifications
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Set<Invalidation> pending = new LinkedHashSet<>();
+
+    private volatile boolean running;
+
+    private Thread listener;
+
+    public CacheInvalidationRepository(
+        DataSourceProperties dataSourceProperties,
+        CacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties
+    ) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheManager = cacheManager;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.properties = applicationProperties.getCacheInvalidation();
+        if (properties.isEnabled()) {
+            registerHibernateListeners();
+        }
+    }
+
+    /**
+     * Broadcast the eviction of a Spring cache entry, once the current transaction, if any, commits.
+     *
+     * @param cacheName the name of the cache.
+     * @param key the key of the entry.
+     */
+    public void broadcastCacheEviction(String cacheName, String key) {
+        broadcast(new Invalidation(Kind.CACHE, cacheName, isSafe(key) ? key : null));
+    }
+
+    /**
+     * Broadcast the eviction of the second level cache entry of an entity, written without going through Hibernate,
+     * once the current transaction, if any, commits.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     */
+    public void broadcastEntityEviction(Class<?> entityClass, Object id) {
+        broadcast(new Invalidation(Kind.ENTITY, entityClass.getName(), id.toString()));
+    }
+
+    /**
+     * Broadcast the eviction of the whole second level cache region of an entity, written without going through
+     * Hibernate, once the current transaction, if any, commits.
+     *
+     * @param entityClass the class of the entity.
+     */
+    public void broadcastRegionEviction(Class<?> entityClass) {
+        broadcast(new Invalidation(Kind.ENTITY, entityClass.getName(), null));
+    }
+
+    private void broadcast(Invalidation invalidation) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Optional<Invalidation> bounded = bounded(invalidation);
+        if (bounded.isEmpty()) {
+            log.warn("Cannot broadcast the invalidation of {} {}, its name is too long", invalidation.kind(), invalidation.name());
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(bounded.get()));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Invalidation> invalidations = (Set<Invalidation>) TransactionSynchronizationManager.getResource(this);
+        if (invalidations == null) {
+            Set<Invalidation> transactionInvalidations = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, transactionInvalidations);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationRepository.this);
+                        if (status == STATUS_COMMITTED) {
+                            enqueue(transactionInvalidations);
+                        }
+                    }
+                }
+            );
+            invalidations = transactionInvalidations;
+        }
+        invalidations.add(bounded.get());
+    }
+
+    private void enqueue(Collection<Invalidation> invalidations) {
+        synchronized (pending) {
+            if (pending.contains(EVERYTHING)) {
+                return;
+            }
+            pending.addAll(invalidations);
+            if (pending.size() > properties.getMaxPending()) {
+                log.warn("{} cache invalidations are waiting to be sent, asking the other instances to empty every cache", pending.size());
+                pending.clear();
+                pending.add(EVERYTHING);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.join(properties.getFlushInterval().multipliedBy(2).toMillis());
+        }
+    }
+
+    private void listen() {
+        // The caches were filled while starting, and no notification could be missed before the first connection
+        boolean missedNotifications = false;
+        while (running) {
+            try (
+                Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword()
+                )
+            ) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("listen " + CHANNEL);
+                }
+                log.info("Listening to cache invalidations on {}", CHANNEL);
+                if (missedNotifications) {
+                    evictAll();
+                    missedNotifications = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int timeout = (int) properties.getFlushInterval().toMillis();
+                while (running) {
+                    flush(connection);
+                    PGNotification[] notifications = pgConnection.getNotifications(timeout);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                missedNotifications = true;
+                log.warn("Cache invalidation connection failed, reconnecting in {}", properties.getReconnectDelay(), e);
+                try {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flush(Connection connection) throws SQLException {
+        List<Invalidation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+            for (String payload : encode(origin, batch)) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            // Sent again on the next connection, a repeated eviction is harmless
+            enqueue(batch);
+            throw e;
+        }
+        log.debug("Broadcast {} cache invalidations", batch.size());
+    }
+
+    private void receive(String payload) {
+        int originEnd = payload.indexOf('\n');
+        if (originEnd < 0 || payload.substring(0, originEnd).equals(origin)) {
+            return;
+        }
+        List<Invalidation> invalidations = decode(payload.substring(originEnd + 1));
+        log.debug("Received {} cache invalidations", invalidations.size());
+        if (invalidations.contains(EVERYTHING)) {
+            evictAll();
+            return;
+        }
+        Set<String> querySpaces = new LinkedHashSet<>();
+        Map<String, Set<Object>> entityIds = new LinkedHashMap<>();
+        CacheImplementor cache = sessionFactory.getCache();
+        for (Invalidation invalidation : invalidations) {
+            switch (invalidation.kind()) {
+                case CACHE:
+                    Cache springCache = cacheManager.getCache(invalidation.name());
+                    if (springCache != null && invalidation.key() != null) {
+                        springCache.evict(invalidation.key());
+                    } else if (springCache != null) {
+                        springCache.clear();
+                    }
+                    break;
+                case ENTITY:
+                    EntityPersister persister = sessionFactory.getMappingMetamodel().findEntityDescriptor(invalidation.name());
+                    if (persister == null) {
+                        break;
+                    }
+                    Object id = parseId(persister, invalidation.key());
+                    if (id != null) {
+                        cache.evictEntityData(invalidation.name(), id);
+                    } else {
+                        cache.evictEntityData(invalidation.name());
+                    }
+                    // No ids stands for the whole region
+                    if (id == null || (entityIds.containsKey(invalidation.name()) && entityIds.get(invalidation.name()) == null)) {
+                        entityIds.put(invalidation.name(), null);
+                    } else {
+                        entityIds.computeIfAbsent(invalidation.name(), name -> new LinkedHashSet<>()).add(id);
+                    }
+                    querySpaces.addAll(List.of((String[]) persister.getPropertySpaces()));
+                    break;
+                case COLLECTION:
+                    CollectionPersister collectionPersister = sessionFactory
+                        .getMappingMetamodel()
+                        .findCollectionDescriptor(invalidation.name());
+                    if (collectionPersister == null) {
+                        break;
+                    }
+                    Object ownerId = parseId(collectionPersister.getOwnerEntityPersister(), invalidation.key());
+                    if (ownerId != null) {
+                        cache.evictCollectionData(invalidation.name(), ownerId);
+                    } else {
+                        cache.evictCollectionData(invalidation.name());
+                    }
+                    querySpaces.addAll(List.of(collectionPersister.getCollectionSpaces()));
+                    break;
+            }
+        }
+        if (!querySpaces.isEmpty()) {
+            try (Session session = sessionFactory.openSession()) {
+                cache.getTimestampsCache().invalidate(querySpaces.toArray(String[]::new), session.unwrap(SessionImplementor.class));
+            }
+        }
+        entityIds.forEach((entityName, ids) -> publish(new RemoteEntityInvalidation(entityName, ids)));
+    }
+
+    private void publish(RemoteEntityInvalidation invalidation) {
+        try {
+            applicationEventPublisher.publishEvent(invalidation);
+        } catch (RuntimeException e) {
+            // Not a connection failure, which would reconnect and empty every cache again
+            log.warn("Could not handle the invalidation of {}", invalidation.entityName(), e);
+        }
+    }
+
+    private Object parseId(EntityPersister persister, String key) {
+        if (key == null) {
+            return null;
+        }
+        Class<?> idClass = persister.getIdentifierType().getReturnedClass();
+        if (idClass == Long.class) {
+            return Long.valueOf(key);
+        }
+        if (idClass == String.class) {
+            return key;
+        }
+        // Any other id type evicts the whole region
+        return null;
+    }
+
+    private void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+        for (String cacheName : BROADCAST_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        publish(new RemoteEntityInvalidation(null, null));
+    }
+
+    /**
+     * Bound an invalidation to what a notification can carry: an entry whose line would not fit is replaced by the
+     * invalidation of its whole cache or region, which is only dropped if its name alone would not fit either.
+     */
+    static Optional<Invalidation> bounded(Invalidation invalidation) {
+        if (lineBytes(invalidation) <= MAX_PAYLOAD_BYTES) {
+            return Optional.of(invalidation);
+        }
+        Invalidation whole = new Invalidation(invalidation.kind(), invalidation.name(), null);
+        return lineBytes(whole) <= MAX_PAYLOAD_BYTES ? Optional.of(whole) : Optional.empty();
+    }
+
+    /**
+     * Coalesce invalidations into notification payloads: an invalidation of a whole cache or region replaces the ones of
+     * its entries, and no payload is longer than a notification can be.
+     */
+    static List<String> encode(String origin, Collection<Invalidation> invalidations) {
+        Set<Invalidation> unique = new LinkedHashSet<>();
+        invalidations.forEach(invalidation -> bounded(invalidation).ifPresent(unique::add));
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(origin);
+        int payloadBytes = 0;
+        for (Invalidation invalidation : unique) {
+            if (invalidation.key() != null && unique.contains(new Invalidation(invalidation.kind(), invalidation.name(), null))) {
+                continue;
+            }
+            String line = line(invalidation);
+            int lineBytes = lineBytes(invalidation);
+            if (payloadBytes > 0 && payloadBytes + lineBytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(origin);
+                payloadBytes = 0;
+            }
+            payload.append('\n').append(line);
+            payloadBytes += lineBytes;
+        }
+        if (payloadBytes > 0) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private static String line(Invalidation invalidation) {
+        String line = invalidation.kind().ordinal() + "\t" + invalidation.name();
+        return invalidation.key() != null ? line + "\t" + invalidation.key() : line;
+    }
+
+    // With the line separator
+    private static int lineBytes(Invalidation invalidation) {
+        return 1 + line(invalidation).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    static List<Invalidation> decode(String lines) {
+        List<Invalidation> invalidations = new ArrayList<>();
+        for (String line : lines.split("\n")) {
+            String[] fields = line.split("\t", 3);
+            if (fields.length >= 2) {
+                Kind kind = Kind.values()[Integer.parseInt(fields[0])];
+                invalidations.add(new Invalidation(kind, fields[1], fields.length == 3 ? fields[2] : null));
+            }
+        }
+        return invalidations;
+    }
+
+    private static boolean isSafe(String key) {
+        return key != null && key.indexOf('\t') < 0 && key.indexOf('\n') < 0;
+    }
+
+    private void registerHibernateListeners() {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        HibernateListener hibernateListener = new HibernateListener();
+        registry.appendListeners(EventType.POST_INSERT, hibernateListener);
+        registry.appendListeners(EventType.POST_UPDATE, hibernateListener);
+        registry.appendListeners(EventType.POST_DELETE, hibernateListener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, hibernateListener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, hibernateListener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, hibernateListener);
+    }
+
+    /**
+     * Collects the cached entities and collections written through Hibernate, at flush time.
+     */
+    private class HibernateListener
+        implements
+            PostInsertEventListener,
+            PostUpdateEventListener,
+            PostDeleteEventListener,
+            PostCollectionRecreateEventListener,
+            PostCollectionUpdateEventListener,
+            PostCollectionRemoveEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            onEntity(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            onEntity(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            onEntity(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+
+        @Override
+        public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+            onCollection(event);
+        }
+
+        @Override
+        public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+            onCollection(event);
+        }
+
+        @Override
+        public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+            onCollection(event);
+        }
+
+        private void onEntity(EntityPersister persister, Object id) {
+            if (persister.canWriteToCache()) {
+                broadcast(new Invalidation(Kind.ENTITY, persister.getEntityName(), id.toString()));
+            }
+        }
+
+        private void onCollection(AbstractCollectionEvent event) {
+            String role = event.getCollection().getRole();
+            Object ownerId = event.getAffectedOwnerIdOrNull();
+            if (role != null && sessionFactory.getMappingMetamodel().getCollectionDescriptor(role).hasCache()) {
+                broadcast(new Invalidation(Kind.COLLECTION, role, ownerId != null ? ownerId.toString() : null));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Instrument;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository loading instruments in bulk with the PostgreSQL {@code COPY} protocol.
+ * <p>
+ * The rows are first copied into an unlogged staging table, then merged into {@code instrument} with a single statement.
+ * Each step commits on its own connection, outside of any Spring transaction, so that a staging table can be filled
+ * by one thread and merged by another.
+ */
+@Repository
+public class InstrumentImportRepository {
+
+    public record MergeResult(long inserted, long updated, long notFound) {}
+
+    private static final String[] QUERY_SPACES = { "instrument" };
+
+    // The increment of sequence_generator, and the allocationSize of the Instrument ids
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final DataSource dataSource;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
+    public InstrumentImportRepository(
+        DataSource dataSource,
+        EntityManagerFactory entityManagerFactory,
+        CacheInvalidationRepository cacheInvalidationRepository
+    ) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+    }
+
+    /**
+     * Create a staging table.
+     *
+     * @param table the name of the table, which must be a valid unquoted identifier.
+     */
+    public void createStagingTable(String table) throws SQLException {
+        execute("create unlogged table " + table + " (line bigserial, id bigint, name varchar(255))");
+    }
+
+    /**
+     * Copy a CSV stream into a staging table, without holding it in memory.
+     *
+     * @param table the name of the staging table.
+     * @param csv the CSV stream, with an {@code id} and a {@code name} column after a header line.
+     * @param delimiter the column delimiter.
+     * @return the number of rows copied.
+     */
+    public long copyIn(String table, InputStream csv, char delimiter) throws SQLException, IOException {
+        String sql = "copy " + table + " (id, name) from stdin with (format csv, header true, delimiter '" + delimiter + "')";
+        try (Connection connection = dataSource.getConnection()) {
+            try {
+                long rows = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, csv);
+                connection.commit();
+                return rows;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Merge a staging table into {@code instrument}.
+     * <p>
+     * Rows with an id update that instrument, the last row winning when an id is repeated, and are counted as not found if
+     * it does not exist, as the bulk upsert does. Rows without an id create an instrument. Every merged instrument gets a
+     * new change sequence value.
+     *
+     * @param table the name of the staging table.
+     * @return the number of instruments inserted and updated, and of distinct ids not found.
+     */
+    public MergeResult merge(String table) throws SQLException {
+        // The new ids are handed out as the pooled optimizer of Hibernate does: each value taken from sequence_generator is
+        // the upper bound of a block of ids that no one else will use, so one is taken per block of new rows
+        String sql =
+            "with staged as (" +
+            " select distinct on (id) id, name from " +
+            table +
+            " where id is not null order by id, line desc" +
+            "), updated as (" +
+            " update instrument" +
+            " set name = staged.name, version = instrument.version + 1, change_sequence = next_instrument_change_sequence()" +
+            " from staged where instrument.id = staged.id" +
+            " returning instrument.id" +
+            "), created as (" +
+            " select name, row_number() over (order by line) - 1 as n from " +
+            table +
+            " where id is null" +
+            "), blocks as (" +
+            " select block, nextval('sequence_generator') as last_id" +
+            " from (select distinct n / " +
+            ID_BLOCK_SIZE +
+            " as block from created) created_blocks" +
+            "), inserted as (" +
+            " insert into instrument (id, name, version, change_sequence)" +
+            " select blocks.last_id - " +
+            (ID_BLOCK_SIZE - 1) +
+            " + created.n % " +
+            ID_BLOCK_SIZE +
+            ", created.name, 0, next_instrument_change_sequence()" +
+            " from created join blocks on blocks.block = created.n / " +
+            ID_BLOCK_SIZE +
+            " returning id" +
+            ")" +
+            " select (select count(*) from inserted), (select count(*) from updated)," +
+            " (select count(*) from staged) - (select count(*) from updated)";
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                resultSet.next();
+                MergeResult result = new MergeResult(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3));
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Drop a staging table, if it exists.
+     *
+     * @param table the name of the staging table.
+     */
+    public void dropStagingTable(String table) throws SQLException {
+        execute("drop table if exists " + table);
+    }
+
+    /**
+     * Drop the copies of the instruments held by Hibernate after a merge, which bypassed it: the whole second level cache
+     * region, and the cached query results over the table, on this instance and the others.
+     */
+    public void evictCachedInstruments() {
+        entityManagerFactory.getCache().evict(Instrument.class);
+        cacheInvalidationRepository.broadcastRegionEviction(Instrument.class);
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).openSession()) {
+            SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+            sessionImplementor.getFactory().getCache().getTimestampsCache().invalidate(QUERY_SPACES, sessionImplementor);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try {
+                statement.execute(sql);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+}
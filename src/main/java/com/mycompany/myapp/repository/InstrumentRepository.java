@@ -1,7 +1,17 @@
 package com.mycompany.myapp.repository;
 
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
 import com.mycompany.myapp.domain.Instrument;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +19,86 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface InstrumentRepository extends JpaRepository<Instrument, Long> {}
+public interface InstrumentRepository
+    extends
+        InstrumentRepositoryWithMultiLoad,
+        InstrumentRepositoryWithInPlaceUpdate,
+        InstrumentRepositoryWithBulkDelete,
+        JpaRepository<Instrument, Long> {
+    String INSTRUMENT_LIST_QUERY_CACHE = "instrumentListQueries";
+
+    // Selecting the columns into InstrumentModel skips entity hydration: no managed instance, no dirty-checking snapshot, no L2 cache put
+    String SELECT_MODELS =
+        "select new com.mycompany.myapp.application.domain.model.InstrumentModel(instrument.id, instrument.name, instrument.version)" +
+        " from Instrument instrument";
+
+    List<Instrument> findByChangeSequenceGreaterThanAndChangeSequenceLessThanEqual(
+        Long changeSequence,
+        Long maxChangeSequence,
+        Pageable pageable
+    );
+
+    @Query(value = "select next_instrument_change_sequence() from generate_series(1, :count)", nativeQuery = true)
+    List<Long> nextChangeSequences(@Param("count") int count);
+
+    @Query(
+        value = "select case when is_called then last_value else last_value - 1 end from instrument_change_sequence",
+        nativeQuery = true
+    )
+    long lastChangeSequence();
+
+    /**
+     * Get the lowest low-water mark held by the other transactions writing instruments, which only take change sequence
+     * values above it (see next_instrument_change_sequence). The changes of the current transaction are visible to it.
+     *
+     * @return the low-water mark, or {@code null} if no such transaction is in progress.
+     */
+    @Query(
+        value = "select min(((cast(classid as bigint) & 65535) << 32) | cast(objid as bigint)) from pg_locks" +
+        " where locktype = 'advisory' and objsubid = 1 and cast(classid as bigint) >> 16 = 18755 and pid <> pg_backend_pid()",
+        nativeQuery = true
+    )
+    Long oldestInFlightChangeSequence();
+
+    List<Instrument> findByNameStartingWithIgnoreCase(String prefix, Pageable pageable);
+
+    @Query(SELECT_MODELS)
+    List<InstrumentModel> findAllModels();
+
+    @Query(value = SELECT_MODELS, countQuery = "select count(instrument) from Instrument instrument")
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = INSTRUMENT_LIST_QUERY_CACHE),
+        }
+    )
+    Page<InstrumentModel> findAllModels(Pageable pageable);
+
+    // a Slice reads one more row than the page instead of counting them
+    @Query(SELECT_MODELS)
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = INSTRUMENT_LIST_QUERY_CACHE),
+        }
+    )
+    Slice<InstrumentModel> findAllModelsWithoutCount(Pageable pageable);
+
+    /**
+     * Estimate the number of instruments from the table statistics, without scanning the table.
+     *
+     * @return the estimate, or a negative number if the table was never analyzed.
+     */
+    @Query(value = "select cast(reltuples as bigint) from pg_class where oid = cast('instrument' as regclass)", nativeQuery = true)
+    long estimateCount();
+
+    @Query(SELECT_MODELS + " where instrument.id in :ids")
+    List<InstrumentModel> findAllModelsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_MODELS + " where instrument.id > :id")
+    Slice<InstrumentModel> findAllModelsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_MODELS + " order by instrument.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<InstrumentModel> streamAllModels();
+}
@@ -0,0 +1,26 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.InstrumentTombstone;
+import java.util.Collection;
+import java.util.List;
+
+public interface InstrumentRepositoryWithBulkDelete {
+    /**
+     * Delete instruments with a single {@code DELETE} statement, without loading them first, and write their tombstones
+     * with new change sequence values.
+     *
+     * @param ids the ids of the instruments to delete.
+     * @return the tombstones of the deleted instruments; missing instruments are left out.
+     */
+    List<InstrumentTombstone> deleteAllByIdInBulk(Collection<Long> ids);
+
+    /**
+     * Delete up to {@code limit} instruments whose name starts with a prefix, ignoring case, the same way as
+     * {@link #deleteAllByIdInBulk(Collection)}.
+     *
+     * @param prefix the name prefix, matched literally.
+     * @param limit the maximum number of instruments to delete.
+     * @return the tombstones of the deleted instruments.
+     */
+    List<InstrumentTombstone> deleteByNamePrefixInBulk(String prefix, int limit);
+}
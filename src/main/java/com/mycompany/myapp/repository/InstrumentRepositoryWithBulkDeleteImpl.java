@@ -0,0 +1,122 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Instrument;
+import com.mycompany.myapp.domain.InstrumentTombstone;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility repository to delete instruments in bulk, with {@code DELETE ... RETURNING} feeding the tombstones.
+ */
+public class InstrumentRepositoryWithBulkDeleteImpl implements InstrumentRepositoryWithBulkDelete {
+
+    private static final String DELETE_WHERE_ID_IN = "with deleted as (delete from instrument where id in (";
+
+    private static final String INSERT_TOMBSTONES =
+        ") returning id)" +
+        " insert into instrument_tombstone (instrument_id, change_sequence)" +
+        " select id, next_instrument_change_sequence() from deleted" +
+        " on conflict (instrument_id) do update set change_sequence = excluded.change_sequence" +
+        " returning instrument_id, change_sequence";
+
+    private static final String[] QUERY_SPACES = { "instrument" };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
+    public InstrumentRepositoryWithBulkDeleteImpl(CacheInvalidationRepository cacheInvalidationRepository) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<InstrumentTombstone> deleteAllByIdInBulk(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        NativeQuery<Object[]> query = entityManager
+            .createNativeQuery(DELETE_WHERE_ID_IN + ":ids" + INSERT_TOMBSTONES)
+            .unwrap(NativeQuery.class);
+        query.setParameterList("ids", ids, StandardBasicTypes.LONG);
+        return afterDelete(query.getResultList());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<InstrumentTombstone> deleteByNamePrefixInBulk(String prefix, int limit) {
+        // upper(name) is what idx_instrument_name_upper indexes, with text_pattern_ops for prefix matches
+        String pattern = prefix.toUpperCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        NativeQuery<Object[]> query = entityManager
+            .createNativeQuery(
+                DELETE_WHERE_ID_IN +
+                "select id from instrument where upper(name) like :pattern escape '\\' order by id limit :limit" +
+                INSERT_TOMBSTONES
+            )
+            .unwrap(NativeQuery.class);
+        query.setParameter("pattern", pattern, StandardBasicTypes.STRING);
+        query.setParameter("limit", limit, StandardBasicTypes.INTEGER);
+        return afterDelete(query.getResultList());
+    }
+
+    private List<InstrumentTombstone> afterDelete(List<Object[]> rows) {
+        List<InstrumentTombstone> tombstones = rows
+            .stream()
+            .map(row -> new InstrumentTombstone().instrumentId(((Number) row[0]).longValue()).changeSequence(((Number) row[1]).longValue()))
+            .toList();
+        if (!tombstones.isEmpty()) {
+            evictStaleCopies(tombstones.stream().map(InstrumentTombstone::getInstrumentId).toList());
+        }
+        return tombstones;
+    }
+
+    /**
+     * The statement bypasses Hibernate, so the copies it holds are dropped: the managed ones, if any, and the whole
+     * second level cache region at once rather than entry by entry, again after commit in case a concurrent read put a
+     * deleted instrument back in the meantime. The cached query results over the table are invalidated the way Hibernate
+     * does for its own bulk statements. The other instances drop their copies of the deleted instruments only, once the
+     * transaction commits.
+     */
+    private void evictStaleCopies(List<Long> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        if (session.getPersistenceContextInternal().getNumberOfManagedEntities() > 0) {
+            EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Instrument.class);
+            for (Long id : ids) {
+                Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+                if (managed != null) {
+                    entityManager.detach(managed);
+                }
+            }
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Instrument.class);
+        ids.forEach(id -> cacheInvalidationRepository.broadcastEntityEviction(Instrument.class, id));
+        TimestampsCache timestampsCache = session.getFactory().getCache().getTimestampsCache();
+        timestampsCache.preInvalidate(QUERY_SPACES, session);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        cache.evict(Instrument.class);
+                        timestampsCache.invalidate(QUERY_SPACES, session);
+                    }
+                }
+            );
+        } else {
+            timestampsCache.invalidate(QUERY_SPACES, session);
+        }
+    }
+}
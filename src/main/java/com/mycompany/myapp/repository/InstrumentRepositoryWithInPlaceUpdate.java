@@ -0,0 +1,18 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Instrument;
+import java.util.Optional;
+
+public interface InstrumentRepositoryWithInPlaceUpdate {
+    /**
+     * Update an instrument with a single {@code UPDATE} statement, without loading it first.
+     * <p>
+     * The version is incremented and a new change sequence value is taken. When the given instrument has a version,
+     * the row is only updated if it still has that version.
+     *
+     * @param instrument the instrument to update, with its id.
+     * @param partial whether a {@code null} name keeps the current one instead of clearing it.
+     * @return the updated instrument, detached, or empty if no row has that id (and version).
+     */
+    Optional<Instrument> updateInPlace(Instrument instrument, boolean partial);
+}
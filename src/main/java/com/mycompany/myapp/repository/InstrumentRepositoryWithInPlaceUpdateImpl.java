@@ -0,0 +1,100 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Instrument;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility repository to update instruments in place, with {@code UPDATE ... RETURNING}.
+ */
+public class InstrumentRepositoryWithInPlaceUpdateImpl implements InstrumentRepositoryWithInPlaceUpdate {
+
+    private static final String UPDATE_SET =
+        "update instrument set version = version + 1, change_sequence = next_instrument_change_sequence()";
+
+    private static final String RETURNING = " returning id, name, version, change_sequence";
+
+    private static final String[] QUERY_SPACES = { "instrument" };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
+    public InstrumentRepositoryWithInPlaceUpdateImpl(CacheInvalidationRepository cacheInvalidationRepository) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Instrument> updateInPlace(Instrument instrument, boolean partial) {
+        StringBuilder sql = new StringBuilder(UPDATE_SET);
+        sql.append(partial ? ", name = coalesce(:name, name)" : ", name = :name");
+        sql.append(" where id = :id");
+        if (instrument.getVersion() != null) {
+            sql.append(" and version = :version");
+        }
+        sql.append(RETURNING);
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class);
+        query.setParameter("name", instrument.getName(), StandardBasicTypes.STRING);
+        query.setParameter("id", instrument.getId(), StandardBasicTypes.LONG);
+        if (instrument.getVersion() != null) {
+            query.setParameter("version", instrument.getVersion(), StandardBasicTypes.LONG);
+        }
+        List<Object[]> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evictStaleCopies(instrument.getId());
+        Object[] row = rows.get(0);
+        Instrument updated = new Instrument()
+            .id(((Number) row[0]).longValue())
+            .name((String) row[1])
+            .version(((Number) row[2]).longValue())
+            .changeSequence(((Number) row[3]).longValue());
+        return Optional.of(updated);
+    }
+
+    /**
+     * The statement bypasses Hibernate, so the copies it holds are dropped: the managed one, if any, and the second level
+     * cache entry, again after commit in case a concurrent read put the previous state back in the meantime. The cached
+     * query results over the table are invalidated the way Hibernate does for its own bulk statements. The other instances
+     * drop their copies once the transaction commits.
+     */
+    private void evictStaleCopies(Long id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Instrument.class);
+        Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+        if (managed != null) {
+            entityManager.detach(managed);
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Instrument.class, id);
+        cacheInvalidationRepository.broadcastEntityEviction(Instrument.class, id);
+        TimestampsCache timestampsCache = session.getFactory().getCache().getTimestampsCache();
+        timestampsCache.preInvalidate(QUERY_SPACES, session);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        cache.evict(Instrument.class, id);
+                        timestampsCache.invalidate(QUERY_SPACES, session);
+                    }
+                }
+            );
+        } else {
+            timestampsCache.invalidate(QUERY_SPACES, session);
+        }
+    }
+}
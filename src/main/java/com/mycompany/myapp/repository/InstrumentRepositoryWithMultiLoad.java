@@ -0,0 +1,15 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Instrument;
+import java.util.List;
+
+public interface InstrumentRepositoryWithMultiLoad {
+    /**
+     * Get the instruments with the given ids, looked up in the second level cache first.
+     * The ones that are not cached are loaded together with a single query.
+     *
+     * @param ids the ids of the instruments.
+     * @return the instruments found, in the order of their ids.
+     */
+    List<Instrument> findAllByIdCacheFirst(List<Long> ids);
+}
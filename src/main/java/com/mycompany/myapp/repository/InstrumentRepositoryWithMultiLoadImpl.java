@@ -0,0 +1,31 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Instrument;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+/**
+ * Utility repository to load instruments by id with Hibernate's multi-load support.
+ */
+public class InstrumentRepositoryWithMultiLoadImpl implements InstrumentRepositoryWithMultiLoad {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Instrument> findAllByIdCacheFirst(List<Long> ids) {
+        return entityManager
+            .unwrap(Session.class)
+            .byMultipleIds(Instrument.class)
+            .with(CacheMode.NORMAL)
+            .enableSessionCheck(true)
+            .multiLoad(ids)
+            .stream()
+            .filter(Objects::nonNull)
+            .toList();
+    }
+}
@@ -0,0 +1,19 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.InstrumentTombstone;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the InstrumentTombstone entity.
+ */
+@Repository
+public interface InstrumentTombstoneRepository extends JpaRepository<InstrumentTombstone, Long> {
+    List<InstrumentTombstone> findByChangeSequenceGreaterThanAndChangeSequenceLessThanEqual(
+        Long changeSequence,
+        Long maxChangeSequence,
+        Pageable pageable
+    );
+}
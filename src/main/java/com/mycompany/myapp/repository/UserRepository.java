@@ -1,13 +1,17 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.User;
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -18,6 +22,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     String USERS_BY_LOGIN_CACHE = "usersByLogin";
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
+    /**
+     * The logins that no user has, kept apart from the users so that looking up unknown logins cannot push them out.
+     */
+    String UNKNOWN_USERS_BY_LOGIN_CACHE = "unknownUsersByLogin";
+
+    /**
+     * The emails that no user has, kept apart from the users so that looking up unknown emails cannot push them out.
+     */
+    String UNKNOWN_USERS_BY_EMAIL_CACHE = "unknownUsersByEmail";
+
+    String PUBLIC_USER_LIST_QUERY_CACHE = "publicUserListQueries";
+
+    /**
+     * The cache resolver of the lookups that concurrent misses of the same key load once.
+     */
+    String SINGLE_FLIGHT_CACHE_RESOLVER = "singleFlightCacheResolver";
+
     Optional<User> findOneByActivationKey(String activationKey);
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
     Optional<User> findOneByResetKey(String resetKey);
@@ -25,12 +47,36 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, cacheResolver = SINGLE_FLIGHT_CACHE_RESOLVER, sync = true)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, cacheResolver = SINGLE_FLIGHT_CACHE_RESOLVER, sync = true)
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PUBLIC_USER_LIST_QUERY_CACHE),
+        }
+    )
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    Slice<User> findSliceBy(Pageable pageable);
+
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PUBLIC_USER_LIST_QUERY_CACHE),
+        }
+    )
+    Slice<User> findSliceByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    /**
+     * Estimate the number of users from the table statistics, without scanning the table.
+     *
+     * @return the estimate, or a negative number if the table was never analyzed.
+     */
+    @Query(value = "select cast(reltuples as bigint) from pg_class where oid = cast('jhi_user' as regclass)", nativeQuery = true)
+    long estimateCount();
 }
@@ -34,8 +34,9 @@ public class DomainUserDetailsService implements UserDetailsService {
         log.debug("Authenticating {}", login);
 
         if (new EmailValidator().isValid(login, null)) {
+            // Emails are stored lowercase: the cached lookups of an email then share a single entry whatever its case
             return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+                .findOneWithAuthoritiesByEmailIgnoreCase(login.toLowerCase(Locale.ENGLISH))
                 .map(user -> createSpringSecurityUser(login, user))
                 .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
         }
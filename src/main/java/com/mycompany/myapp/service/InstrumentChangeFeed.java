@@ -0,0 +1,378 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Instrument;
+import com.mycompany.myapp.management.InstrumentMetersService;
+import com.mycompany.myapp.repository.CacheInvalidationRepository;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service pushing the committed instrument changes to the feed subscribers.
+ * <p>
+ * The changes are read from the change sequence, as {@code /instruments/changes} lists them, so that each instance
+ * pushes the changes committed by all of them, in the order a replica catching up would get them. They are read again
+ * as soon as a change is committed here, or notified by another instance, and at the poll interval in any case.
+ * <p>
+ * Publishing only puts the change in the bounded buffer of each subscriber, so a writer never waits for a subscriber.
+ * Each buffer is drained on a bounded pool of sender threads of its own, so that subscribers blocked on their connection
+ * never hold up the shared task executor. A subscriber whose buffer is full, or whose send takes longer than the send
+ * timeout, is disconnected rather than silently missing changes: it is expected to catch up from the change sequence,
+ * then subscribe again.
+ */
+@Service
+public class InstrumentChangeFeed {
+
+    private static final int POLL_PAGE_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(InstrumentChangeFeed.class);
+
+    private final Executor senderExecutor;
+
+    private final InstrumentService instrumentService;
+
+    private final InstrumentMetersService instrumentMetersService;
+
+    private final int bufferSize;
+
+    private final long sendTimeoutNanos;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final Object pollLock = new Object();
+
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+
+    // the change sequence value of the last change published, null while there is no subscriber
+    private Long cursor;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public InstrumentChangeFeed(
+        InstrumentService instrumentService,
+        InstrumentMetersService instrumentMetersService,
+        ApplicationProperties applicationProperties
+    ) {
+        this(senderExecutor(applicationProperties.getInstrumentFeed()), instrumentService, instrumentMetersService, applicationProperties);
+        Duration sendTimeout = applicationProperties.getInstrumentFeed().getSendTimeout();
+        long checkIntervalMillis = Math.max(100, sendTimeout.toMillis() / 2);
+        long pollIntervalMillis = applicationProperties.getInstrumentFeed().getPollInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("instrument-feed-scheduler-"));
+        scheduler.scheduleWithFixedDelay(
+            this::disconnectStalledSubscribers,
+            checkIntervalMillis,
+            checkIntervalMillis,
+            TimeUnit.MILLISECONDS
+        );
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    InstrumentChangeFeed(
+        Executor senderExecutor,
+        InstrumentService instrumentService,
+        InstrumentMetersService instrumentMetersService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.senderExecutor = senderExecutor;
+        this.instrumentService = instrumentService;
+        this.instrumentMetersService = instrumentMetersService;
+        this.bufferSize = applicationProperties.getInstrumentFeed().getBufferSize();
+        this.sendTimeoutNanos = applicationProperties.getInstrumentFeed().getSendTimeout().toNanos();
+    }
+
+    private static ExecutorService senderExecutor(ApplicationProperties.InstrumentFeed properties) {
+        // A drain is queued at most once per subscriber, so the queue bounds the subscribers waiting for a sender thread
+        return new ThreadPoolExecutor(
+            properties.getSenderThreads(),
+            properties.getSenderThreads(),
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getSenderQueueCapacity()),
+            daemonThreads("instrument-feed-sender-")
+        );
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (senderExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Subscribe to the changes committed from now on.
+     *
+     * @param subscriber the subscriber to push the changes to.
+     * @return the subscription, to cancel when the subscriber goes away.
+     */
+    public Subscription subscribe(Subscriber subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        synchronized (pollLock) {
+            if (cursor == null) {
+                cursor = instrumentService.findCommittedChangeSequence();
+            }
+            subscriptions.add(subscription);
+        }
+        instrumentMetersService.trackFeedSubscribed();
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Read the changes again once a transaction that made one here commits.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocalChange(InstrumentChangeEventDTO event) {
+        requestPoll();
+    }
+
+    /**
+     * Read the changes again once another instance notifies that it wrote instruments.
+     *
+     * @param invalidation the notification.
+     */
+    @EventListener
+    public void onRemoteInvalidation(CacheInvalidationRepository.RemoteEntityInvalidation invalidation) {
+        if (invalidation.entityName() == null || invalidation.entityName().equals(Instrument.class.getName())) {
+            requestPoll();
+        }
+    }
+
+    private void requestPoll() {
+        if (scheduler == null || subscriptions.isEmpty() || !pollRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                pollRequested.set(false);
+                poll();
+            });
+        } catch (RejectedExecutionException e) {
+            pollRequested.set(false);
+        }
+    }
+
+    /**
+     * Publish the changes committed since the last one published, if there are subscribers.
+     */
+    void poll() {
+        synchronized (pollLock) {
+            if (subscriptions.isEmpty()) {
+                // a later subscriber only gets the changes committed from then on
+                cursor = null;
+                return;
+            }
+            try {
+                List<InstrumentChangeEventDTO> events;
+                do {
+                    events = instrumentService.findChangeEventsSince(cursor, POLL_PAGE_SIZE);
+                    events.forEach(this::publish);
+                    if (!events.isEmpty()) {
+                        cursor = events.get(events.size() - 1).getChangeSequence();
+                    }
+                } while (events.size() == POLL_PAGE_SIZE);
+            } catch (RuntimeException e) {
+                // the next poll starts again from the last change published
+                log.warn("Could not read the instrument changes for the feed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Push a change to all the subscribers.
+     *
+     * @param event the change.
+     */
+    void publish(InstrumentChangeEventDTO event) {
+        long publishedAt = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(new BufferedEvent(event, publishedAt));
+        }
+    }
+
+    /**
+     * Disconnect the subscribers whose send has been blocked for longer than the send timeout, usually on a client that
+     * stopped reading: their sender thread is interrupted, and they are closed once the send gives up.
+     */
+    void disconnectStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long sendStartedAt = subscription.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt >= sendTimeoutNanos) {
+                subscription.disconnectStalled();
+            }
+        }
+    }
+
+    /**
+     * The receiving end of a subscription, called from a feed sender thread.
+     */
+    public interface Subscriber {
+        void send(InstrumentChangeEventDTO event) throws IOException;
+
+        /**
+         * Called when the feed disconnects the subscriber because it fell too far behind, or a send timed out.
+         */
+        void close();
+    }
+
+    private record BufferedEvent(InstrumentChangeEventDTO event, long publishedAt) {}
+
+    public final class Subscription {
+
+        private final Subscriber subscriber;
+
+        private final BlockingQueue<BufferedEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean cancelled;
+
+        private volatile boolean stalled;
+
+        private volatile Thread sender;
+
+        // when the send in progress started, 0 when none is
+        private volatile long sendStartedAt;
+
+        private Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void offer(BufferedEvent event) {
+            if (cancelled) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                disconnectSlowConsumer();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senderExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                disconnectSlowConsumer();
+            }
+        }
+
+        private void drain() {
+            sender = Thread.currentThread();
+            Thread.interrupted();
+            try {
+                BufferedEvent event;
+                while (!cancelled && (event = buffer.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    subscriber.send(event.event());
+                    sendStartedAt = 0;
+                    instrumentMetersService.trackFeedDelivery(System.nanoTime() - event.publishedAt());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not push an instrument change to a feed subscriber: {}", e.getMessage());
+                cancel();
+            } finally {
+                sendStartedAt = 0;
+                sender = null;
+                // the interrupt of a stalled send must not leak to the next task of the pooled thread
+                Thread.interrupted();
+                draining.set(false);
+            }
+            if (stalled) {
+                // only now that the send gave up, as the subscriber cannot be closed while a send holds it
+                subscriber.close();
+                return;
+            }
+            // a change offered after the last poll, but before the flag was cleared, would otherwise wait for the next one
+            if (!cancelled && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void disconnectSlowConsumer() {
+            int droppedEvents = buffer.size() + 1;
+            if (cancel()) {
+                log.info("Disconnecting a slow instrument feed subscriber, {} changes dropped", droppedEvents);
+                instrumentMetersService.trackFeedSlowConsumer(droppedEvents);
+                subscriber.close();
+            }
+        }
+
+        private void disconnectStalled() {
+            int droppedEvents = buffer.size() + 1;
+            if (cancel()) {
+                log.info("Disconnecting an instrument feed subscriber whose send timed out, {} changes dropped", droppedEvents);
+                instrumentMetersService.trackFeedSlowConsumer(droppedEvents);
+                stalled = true;
+                Thread thread = sender;
+                if (thread != null) {
+                    thread.interrupt();
+                } else {
+                    // the send completed in the meantime, and its drain may have missed the flag
+                    subscriber.close();
+                }
+            }
+        }
+
+        /**
+         * Stop pushing changes to the subscriber.
+         *
+         * @return whether the subscription was still active.
+         */
+        public boolean cancel() {
+            if (!subscriptions.remove(this)) {
+                return false;
+            }
+            cancelled = true;
+            buffer.clear();
+            instrumentMetersService.trackFeedUnsubscribed();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.InstrumentImportRepository;
+import com.mycompany.myapp.service.dto.InstrumentImportJobDTO;
+import com.mycompany.myapp.service.dto.InstrumentImportJobDTO.Status;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service importing instruments in bulk from CSV.
+ * <p>
+ * The CSV stream is copied into a staging table while it is received, then merged into the instruments by a background
+ * job on the task executor. The jobs are kept in memory, so their progress is only known to the node running them.
+ */
+@Service
+public class InstrumentImportService {
+
+    private static final int MAX_JOBS = 100;
+
+    private final Logger log = LoggerFactory.getLogger(InstrumentImportService.class);
+
+    private final InstrumentImportRepository instrumentImportRepository;
+
+    private final InstrumentSnapshotIndex instrumentSnapshotIndex;
+
+    private final Executor taskExecutor;
+
+    // The most recent jobs, oldest first.
+    private final Map<String, Job> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_JOBS;
+        }
+    };
+
+    public InstrumentImportService(
+        InstrumentImportRepository instrumentImportRepository,
+        InstrumentSnapshotIndex instrumentSnapshotIndex,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.instrumentImportRepository = instrumentImportRepository;
+        this.instrumentSnapshotIndex = instrumentSnapshotIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Copy a CSV stream into a staging table, then start merging it into the instruments in the background.
+     *
+     * @param csv the CSV stream, with an {@code id} and a {@code name} column after a header line.
+     * @param delimiter the column delimiter.
+     * @return the job, merging, or failed if the stream could not be copied.
+     */
+    public InstrumentImportJobDTO importCsv(InputStream csv, char delimiter) {
+        Job job = new Job();
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        log.info("Starting instrument import {}", job.id);
+        try {
+            instrumentImportRepository.createStagingTable(job.stagingTable());
+            job.rowsCopied = instrumentImportRepository.copyIn(job.stagingTable(), new CountingInputStream(csv, job.bytesRead), delimiter);
+        } catch (SQLException | IOException | RuntimeException e) {
+            fail(job, e);
+            return job.toDto();
+        }
+        log.info("Copied {} rows for instrument import {}, merging them", job.rowsCopied, job.id);
+        job.status = Status.MERGING;
+        try {
+            taskExecutor.execute(() -> merge(job));
+        } catch (RejectedExecutionException e) {
+            fail(job, e);
+        }
+        return job.toDto();
+    }
+
+    private void merge(Job job) {
+        try {
+            InstrumentImportRepository.MergeResult result = instrumentImportRepository.merge(job.stagingTable());
+            job.inserted = result.inserted();
+            job.updated = result.updated();
+            job.notFound = result.notFound();
+            instrumentImportRepository.dropStagingTable(job.stagingTable());
+            // The merge bypassed Hibernate and InstrumentService, so their copies of the instruments are dropped
+            instrumentImportRepository.evictCachedInstruments();
+            instrumentSnapshotIndex.reload();
+            job.finish(Status.COMPLETED, null);
+            log.info(
+                "Completed instrument import {}: {} inserted, {} updated, {} not found",
+                job.id,
+                job.inserted,
+                job.updated,
+                job.notFound
+            );
+        } catch (SQLException | RuntimeException e) {
+            fail(job, e);
+        }
+    }
+
+    private void fail(Job job, Exception e) {
+        log.warn("Instrument import {} failed", job.id, e);
+        job.finish(Status.FAILED, e.getMessage());
+        try {
+            instrumentImportRepository.dropStagingTable(job.stagingTable());
+        } catch (SQLException dropException) {
+            log.warn("Could not drop the staging table {} of instrument import {}", job.stagingTable(), job.id, dropException);
+        }
+    }
+
+    /**
+     * Get an import job.
+     *
+     * @param id the id of the job.
+     * @return the job, if it is one of the recent ones.
+     */
+    public Optional<InstrumentImportJobDTO> findJob(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+        }
+    }
+
+    /**
+     * Get the recent import jobs.
+     *
+     * @return the jobs, oldest first.
+     */
+    public List<InstrumentImportJobDTO> findAllJobs() {
+        synchronized (jobs) {
+            List<InstrumentImportJobDTO> result = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> result.add(job.toDto()));
+            return result;
+        }
+    }
+
+    private static class Job {
+
+        private final String id = UUID.randomUUID().toString();
+
+        private final Instant startedAt = Instant.now();
+
+        private final AtomicLong bytesRead = new AtomicLong();
+
+        private volatile Status status = Status.UPLOADING;
+
+        private volatile long rowsCopied;
+
+        private volatile long inserted;
+
+        private volatile long updated;
+
+        private volatile long notFound;
+
+        private volatile Instant finishedAt;
+
+        private volatile String error;
+
+        private String stagingTable() {
+            return "instrument_import_" + id.replace("-", "");
+        }
+
+        private void finish(Status status, String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        private InstrumentImportJobDTO toDto() {
+            InstrumentImportJobDTO jobDTO = new InstrumentImportJobDTO();
+            jobDTO.setId(id);
+            jobDTO.setStatus(status);
+            jobDTO.setBytesRead(bytesRead.get());
+            jobDTO.setRowsCopied(rowsCopied);
+            jobDTO.setInserted(inserted);
+            jobDTO.setUpdated(updated);
+            jobDTO.setNotFound(notFound);
+            jobDTO.setStartedAt(startedAt);
+            jobDTO.setFinishedAt(finishedAt);
+            jobDTO.setError(error);
+            return jobDTO;
+        }
+    }
+
+    /**
+     * Counts the bytes read from a stream, for the progress of the job reading it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
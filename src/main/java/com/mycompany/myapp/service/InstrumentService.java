@@ -1,9 +1,18 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.service.dto.InstrumentBatchResultDTO;
+import com.mycompany.myapp.service.dto.InstrumentBulkDeleteResultDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangesDTO;
 import com.mycompany.myapp.service.dto.InstrumentDTO;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Service Interface for managing {@link com.mycompany.myapp.domain.Instrument}.
@@ -18,21 +27,40 @@ public interface InstrumentService {
     InstrumentDTO save(InstrumentDTO instrumentDTO);
 
     /**
-     * Updates a instrument.
+     * Updates a instrument, with a single statement.
+     * <p>
+     * When the entity has a version, it is only updated if it is still at that version.
      *
      * @param instrumentDTO the entity to update.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if there is no entity with that id.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the entity is no longer at the given version.
      */
-    InstrumentDTO update(InstrumentDTO instrumentDTO);
+    Optional<InstrumentDTO> update(InstrumentDTO instrumentDTO);
 
     /**
-     * Partially updates a instrument.
+     * Partially updates a instrument, with a single statement.
+     * <p>
+     * When the entity has a version, it is only updated if it is still at that version.
      *
      * @param instrumentDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if there is no entity with that id.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the entity is no longer at the given version.
      */
     Optional<InstrumentDTO> partialUpdate(InstrumentDTO instrumentDTO);
 
+    /**
+     * Save or update many instruments, in chunked transactions.
+     * <p>
+     * Instruments without an id are created, the others update the existing instrument with that id.
+     * A chunk that fails is rolled back and reported, and the following chunks are still processed.
+     * An instrument that is not valid, or that the iterator fails to read, is rejected and reported with its chunk.
+     *
+     * @param instrumentDTOs the entities to save, consumed lazily; {@code next} may throw for an unreadable entity,
+     * the following ones are then still read.
+     * @return the outcome of each chunk.
+     */
+    InstrumentBatchResultDTO saveAll(Iterator<InstrumentDTO> instrumentDTOs);
+
     /**
      * Get all the instruments.
      *
@@ -41,6 +69,85 @@ public interface InstrumentService {
      */
     Page<InstrumentDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a page of the instruments, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    Slice<InstrumentDTO> findAllWithoutCount(Pageable pageable);
+
+    /**
+     * Estimate the number of instruments, without counting them.
+     *
+     * @return the estimate.
+     */
+    long estimateCount();
+
+    /**
+     * Get the instruments following the "afterId" one, in id order, without counting them.
+     * <p>
+     * Unlike {@link #findAll(Pageable)}, the cost of a page does not grow with its position.
+     *
+     * @param afterId the id to start after.
+     * @param pageable the pagination information, of which only the page size is used.
+     * @return the slice of entities.
+     */
+    Slice<InstrumentDTO> findAllAfter(long afterId, Pageable pageable);
+
+    /**
+     * Search the instruments whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix the name prefix.
+     * @param limit the maximum number of entities to return.
+     * @return the list of entities, in name order.
+     */
+    List<InstrumentDTO> searchByNamePrefix(String prefix, int limit);
+
+    /**
+     * Visit all the instruments in id order, read from a forward-only cursor so that memory use does not depend on their number.
+     *
+     * @param consumer the consumer of each entity.
+     */
+    void exportAll(Consumer<InstrumentDTO> consumer);
+
+    /**
+     * Get the instruments with the given ids.
+     *
+     * @param ids the ids of the entities.
+     * @return the list of entities found, in the order of their ids; unknown ids are skipped.
+     */
+    List<InstrumentDTO> findAllById(List<Long> ids);
+
+    /**
+     * Get the instruments created, updated or deleted after a change sequence value, in change order.
+     * <p>
+     * Only the changes below the oldest one still in progress are returned, so that none can commit before the value
+     * returned to start after.
+     *
+     * @param since the change sequence value to start after, {@code 0} for all the instruments.
+     * @param limit the maximum number of changes to return.
+     * @return the changes, with the value to start after for the following ones.
+     */
+    InstrumentChangesDTO findChangesSince(long since, int limit);
+
+    /**
+     * Get the changes after a change sequence value as events, in change order, up to the same value as
+     * {@link #findChangesSince(long, int)}.
+     *
+     * @param since the change sequence value to start after.
+     * @param limit the maximum number of changes to return.
+     * @return the changes.
+     */
+    List<InstrumentChangeEventDTO> findChangeEventsSince(long since, int limit);
+
+    /**
+     * Get the change sequence value up to which every change has either committed or been rolled back.
+     *
+     * @return the value, to get the changes since.
+     */
+    long findCommittedChangeSequence();
+
     /**
      * Get the "id" instrument.
      *
@@ -55,4 +162,24 @@ public interface InstrumentService {
      * @param id the id of the entity.
      */
     void delete(Long id);
+
+    /**
+     * Delete many instruments by id, in chunked transactions.
+     * <p>
+     * Each chunk is deleted with a single statement and committed on its own, so a failure leaves the previous chunks
+     * deleted: running the same deletion again completes it.
+     *
+     * @param ids the ids of the entities to delete; missing ones are ignored.
+     * @return the outcome of the deletion.
+     */
+    InstrumentBulkDeleteResultDTO deleteAll(Collection<Long> ids);
+
+    /**
+     * Delete all the instruments whose name starts with a prefix, ignoring case, in chunked transactions like
+     * {@link #deleteAll(Collection)}.
+     *
+     * @param prefix the name prefix.
+     * @return the outcome of the deletion.
+     */
+    InstrumentBulkDeleteResultDTO deleteByNamePrefix(String prefix);
 }
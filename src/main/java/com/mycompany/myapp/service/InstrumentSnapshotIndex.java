@@ -0,0 +1,289 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
+import com.mycompany.myapp.application.domain.model.InstrumentSnapshot;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Instrument;
+import com.mycompany.myapp.repository.CacheInvalidationRepository;
+import com.mycompany.myapp.repository.InstrumentRepository;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service holding the in-memory {@link InstrumentSnapshot} used by the instrument read paths.
+ * <p>
+ * The snapshot is loaded once the application is ready, then kept up to date with the changes made through
+ * {@link InstrumentService}: they are collected per transaction and merged into a new snapshot after commit. The
+ * instruments written by the other instances are read again once they broadcast their invalidation, see
+ * {@link CacheInvalidationRepository}.
+ * Until the snapshot is loaded, or when it is disabled, {@link #current()} is empty and reads go to the database.
+ * <p>
+ * The {@link #catalogVersion()} is derived from the instruments of the snapshot, so every instance holding the same
+ * instruments hands out the same one.
+ */
+@Service
+public class InstrumentSnapshotIndex {
+
+    private final Logger log = LoggerFactory.getLogger(InstrumentSnapshotIndex.class);
+
+    private final InstrumentRepository instrumentRepository;
+
+    private final Executor taskExecutor;
+
+    private final boolean enabled;
+
+    private volatile InstrumentSnapshot snapshot = InstrumentSnapshot.empty();
+
+    private volatile boolean loaded;
+
+    private boolean loading;
+
+    // Changes committed while the snapshot is being loaded, replayed on top of it.
+    private final Map<Long, InstrumentModel> backlog = new LinkedHashMap<>();
+
+    // Held for a whole load, so that a reload never overlaps another one and drops its backlog.
+    private final Object loadLock = new Object();
+
+    // Set while a reload asked by another instance waits for the task executor, to run a single one for a burst of them
+    private final AtomicBoolean remoteReloadRequested = new AtomicBoolean();
+
+    public InstrumentSnapshotIndex(
+        InstrumentRepository instrumentRepository,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.instrumentRepository = instrumentRepository;
+        this.taskExecutor = taskExecutor;
+        this.enabled = applicationProperties.getInstrumentSnapshot().isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (loadLock) {
+            log.debug("Loading the instrument snapshot");
+            synchronized (this) {
+                loading = true;
+            }
+            try {
+                InstrumentSnapshot loadedSnapshot = InstrumentSnapshot.of(instrumentRepository.findAllModels());
+                synchronized (this) {
+                    snapshot = loadedSnapshot.withChanges(backlog);
+                    backlog.clear();
+                    loading = false;
+                    loaded = true;
+                }
+                log.info("Loaded {} instruments in the instrument snapshot", snapshot.size());
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    backlog.clear();
+                    loading = false;
+                }
+                log.warn("Could not load the instrument snapshot, instruments will be read from the database", e);
+            }
+        }
+    }
+
+    /**
+     * Reload the snapshot, after instruments were written without going through {@link InstrumentService}.
+     */
+    public void reload() {
+        load();
+    }
+
+    /**
+     * Follow the instruments written by another instance: the invalidated ones are read again, or the whole snapshot is
+     * reloaded on the task executor when the whole region was invalidated, so that the notifications that follow are
+     * not held up by the load.
+     *
+     * @param invalidation the entities invalidated by the other instance.
+     */
+    @EventListener
+    public void onRemoteInvalidation(CacheInvalidationRepository.RemoteEntityInvalidation invalidation) {
+        if (!enabled || (invalidation.entityName() != null && !invalidation.entityName().equals(Instrument.class.getName()))) {
+            return;
+        }
+        if (invalidation.ids() == null) {
+            if (remoteReloadRequested.compareAndSet(false, true)) {
+                taskExecutor.execute(() -> {
+                    remoteReloadRequested.set(false);
+                    log.debug("Reloading the instrument snapshot, after instruments were written by another instance");
+                    reload();
+                });
+            }
+            return;
+        }
+        List<Long> ids = invalidation.ids().stream().map(Long.class::cast).toList();
+        Map<Long, InstrumentModel> changes = new LinkedHashMap<>();
+        ids.forEach(id -> changes.put(id, null));
+        instrumentRepository.findAllModelsByIdIn(ids).forEach(instrument -> changes.put(instrument.getId(), instrument));
+        applyNewer(changes);
+    }
+
+    /**
+     * Get the current snapshot.
+     *
+     * @return the snapshot, or empty if it is disabled or not loaded yet.
+     */
+    public Optional<InstrumentSnapshot> current() {
+        return loaded ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    /**
+     * Get the version of the whole instrument catalog, from the size and digest of the current snapshot.
+     *
+     * @return the catalog version, to be used as an entity tag, or empty if there is no snapshot.
+     */
+    public Optional<String> catalogVersion() {
+        return current().map(current -> current.size() + "-" + Long.toHexString(current.digest()));
+    }
+
+    /**
+     * Get a page of instruments from the current snapshot.
+     *
+     * @param pageable the pagination information.
+     * @return the page, or empty if there is no snapshot or if the requested sort is not on the id only.
+     */
+    public Optional<Page<InstrumentModel>> findAll(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        Sort.Order idOrder = sort.getOrderFor("id");
+        if (sort.isSorted() && (idOrder == null || sort.stream().count() > 1)) {
+            return Optional.empty();
+        }
+        boolean descending = idOrder != null && idOrder.isDescending();
+        return current()
+            .<Page<InstrumentModel>>map(current -> {
+                if (pageable.isUnpaged()) {
+                    return new PageImpl<>(current.slice(0, current.size(), descending));
+                }
+                List<InstrumentModel> content = current.slice(pageable.getOffset(), pageable.getPageSize(), descending);
+                return new PageImpl<>(content, pageable, current.size());
+            });
+    }
+
+    /**
+     * Get the instruments following the "afterId" one from the current snapshot, in id order.
+     *
+     * @param afterId the id to start after.
+     * @param pageable the pagination information, of which only the page size is used.
+     * @return the slice, or empty if there is no snapshot.
+     */
+    public Optional<Slice<InstrumentModel>> findAllAfter(long afterId, Pageable pageable) {
+        return current()
+            .<Slice<InstrumentModel>>map(current -> {
+                List<InstrumentModel> content = current.sliceAfter(afterId, pageable.getPageSize() + 1);
+                boolean hasNext = content.size() > pageable.getPageSize();
+                return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+            });
+    }
+
+    /**
+     * Get the instruments whose name starts with a prefix from the current snapshot, ignoring case.
+     *
+     * @param prefix the name prefix.
+     * @param limit the maximum number of instruments to return.
+     * @return the matching instruments in name order, or empty if there is no snapshot.
+     */
+    public Optional<List<InstrumentModel>> searchByNamePrefix(String prefix, int limit) {
+        return current().map(current -> current.searchByNamePrefix(prefix, limit));
+    }
+
+    /**
+     * Add or replace an instrument once the current transaction commits.
+     *
+     * @param instrument the saved instrument.
+     */
+    public void put(InstrumentModel instrument) {
+        stage(instrument.getId(), instrument);
+    }
+
+    /**
+     * Remove the "id" instrument once the current transaction commits.
+     *
+     * @param id the id of the deleted instrument.
+     */
+    public void evict(Long id) {
+        stage(id, null);
+    }
+
+    private void stage(Long id, InstrumentModel instrument) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Collections.singletonMap(id, instrument));
+            return;
+        }
+        PendingChanges pendingChanges = TransactionSynchronizationManager
+            .getSynchronizations()
+            .stream()
+            .filter(PendingChanges.class::isInstance)
+            .map(PendingChanges.class::cast)
+            .filter(pending -> pending.owner() == this)
+            .findFirst()
+            .orElseGet(() -> {
+                PendingChanges pending = new PendingChanges();
+                TransactionSynchronizationManager.registerSynchronization(pending);
+                return pending;
+            });
+        pendingChanges.changes.put(id, instrument);
+    }
+
+    private synchronized void apply(Map<Long, InstrumentModel> changes) {
+        // While reloading, the query may have been read before these changes, so they are replayed on top of its result too
+        if (loading) {
+            backlog.putAll(changes);
+        }
+        if (loaded) {
+            snapshot = snapshot.withChanges(changes);
+        }
+    }
+
+    /**
+     * Apply changes read outside of the transactions that made them, which a change committed here since may have
+     * overtaken: an instrument older than the one in the snapshot is left out.
+     */
+    private synchronized void applyNewer(Map<Long, InstrumentModel> changes) {
+        if (loaded) {
+            changes
+                .values()
+                .removeIf(instrument -> {
+                    InstrumentModel current = instrument != null ? snapshot.get(instrument.getId()) : null;
+                    return current != null && current.getVersion() > instrument.getVersion();
+                });
+        }
+        apply(changes);
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Long, InstrumentModel> changes = new LinkedHashMap<>();
+
+        private InstrumentSnapshotIndex owner() {
+            return InstrumentSnapshotIndex.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(changes);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.CacheInvalidationRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
@@ -18,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -41,16 +43,20 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        CacheInvalidationRepository cacheInvalidationRepository
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -278,11 +284,34 @@ public class UserService {
         return userRepository.findAll(pageable).map(AdminUserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<AdminUserDTO> getAllManagedUsersWithoutCount(Pageable pageable) {
+        return userRepository.findSliceBy(pageable).map(AdminUserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> getAllPublicUsersWithoutCount(Pageable pageable) {
+        return userRepository.findSliceByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+    }
+
+    /**
+     * Estimate the number of users from the table statistics, counting them only if there are none yet.
+     * <p>
+     * The estimate includes the users that are not activated.
+     *
+     * @return the estimate.
+     */
+    @Transactional(readOnly = true)
+    public long estimateUserCount() {
+        long estimate = userRepository.estimateCount();
+        return estimate >= 0 ? estimate : userRepository.count();
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
@@ -319,9 +348,17 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        clearUserCache(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
+        // A created user, or a changed login or email, is no longer unknown
+        clearUserCache(UserRepository.UNKNOWN_USERS_BY_LOGIN_CACHE, user.getLogin());
         if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            clearUserCache(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail());
+            clearUserCache(UserRepository.UNKNOWN_USERS_BY_EMAIL_CACHE, user.getEmail());
         }
     }
+
+    private void clearUserCache(String cacheName, String key) {
+        Objects.requireNonNull(cacheManager.getCache(cacheName)).evict(key);
+        cacheInvalidationRepository.broadcastCacheEviction(cacheName, key);
+    }
 }
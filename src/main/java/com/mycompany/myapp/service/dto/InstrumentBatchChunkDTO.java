@@ -0,0 +1,134 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of one chunk of a bulk instrument upsert.
+ */
+public class InstrumentBatchChunkDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int index;
+
+    private int size;
+
+    private int created;
+
+    private int updated;
+
+    private int notFound;
+
+    private int rejected;
+
+    private List<String> rejections = new ArrayList<>();
+
+    private boolean failed;
+
+    private String error;
+
+    private long durationMillis;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(int notFound) {
+        this.notFound = notFound;
+    }
+
+    /**
+     * The number of instruments that could not be read or are not valid, and were skipped.
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * Why the first rejected instruments were rejected, by position in the batch.
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(List<String> rejections) {
+        this.rejections = rejections;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentBatchChunkDTO{" +
+            "index=" + index +
+            ", size=" + size +
+            ", created=" + created +
+            ", updated=" + updated +
+            ", notFound=" + notFound +
+            ", rejected=" + rejected +
+            ", failed=" + failed +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk instrument upsert, chunk by chunk.
+ */
+public class InstrumentBatchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<InstrumentBatchChunkDTO> chunks = new ArrayList<>();
+
+    private long total;
+
+    private long created;
+
+    private long updated;
+
+    private long notFound;
+
+    private long rejected;
+
+    private long failed;
+
+    private long durationMillis;
+
+    private double rowsPerSecond;
+
+    public List<InstrumentBatchChunkDTO> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<InstrumentBatchChunkDTO> chunks) {
+        this.chunks = chunks;
+    }
+
+    public void addChunk(InstrumentBatchChunkDTO chunk) {
+        chunks.add(chunk);
+        total += chunk.getSize();
+        created += chunk.getCreated();
+        updated += chunk.getUpdated();
+        notFound += chunk.getNotFound();
+        rejected += chunk.getRejected();
+        if (chunk.isFailed()) {
+            // the rejected instruments were not part of the failed write
+            failed += chunk.getSize() - chunk.getRejected();
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(long notFound) {
+        this.notFound = notFound;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentBatchResultDTO{" +
+            "total=" + total +
+            ", created=" + created +
+            ", updated=" + updated +
+            ", notFound=" + notFound +
+            ", rejected=" + rejected +
+            ", failed=" + failed +
+            ", durationMillis=" + durationMillis +
+            "}";
+    }
+}
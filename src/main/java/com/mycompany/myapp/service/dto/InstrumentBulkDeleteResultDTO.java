@@ -0,0 +1,51 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the outcome of a bulk instrument deletion.
+ */
+public class InstrumentBulkDeleteResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long deleted;
+
+    private int chunks;
+
+    private long durationMillis;
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentBulkDeleteResultDTO{" +
+            "deleted=" + getDeleted() +
+            ", chunks=" + getChunks() +
+            ", durationMillis=" + getDurationMillis() +
+            "}";
+    }
+}
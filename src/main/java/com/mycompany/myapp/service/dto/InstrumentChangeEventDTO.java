@@ -0,0 +1,78 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a committed change of an instrument, as pushed to the instrument feed.
+ */
+public class InstrumentChangeEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private ChangeType type;
+
+    private Long id;
+
+    private Long changeSequence;
+
+    private InstrumentDTO instrument;
+
+    public InstrumentChangeEventDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public InstrumentChangeEventDTO(ChangeType type, Long id, Long changeSequence, InstrumentDTO instrument) {
+        this.type = type;
+        this.id = id;
+        this.changeSequence = changeSequence;
+        this.instrument = instrument;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChangeSequence() {
+        return changeSequence;
+    }
+
+    public void setChangeSequence(Long changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    public InstrumentDTO getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(InstrumentDTO instrument) {
+        this.instrument = instrument;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentChangeEventDTO{" +
+            "type=" + type +
+            ", id=" + id +
+            ", changeSequence=" + changeSequence +
+            "}";
+    }
+}
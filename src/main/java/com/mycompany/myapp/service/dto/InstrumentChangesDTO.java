@@ -0,0 +1,64 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the instruments changed or deleted after a change sequence value.
+ */
+public class InstrumentChangesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<InstrumentDTO> instruments = new ArrayList<>();
+
+    private List<Long> deletedIds = new ArrayList<>();
+
+    private long next;
+
+    private boolean hasMore;
+
+    public List<InstrumentDTO> getInstruments() {
+        return instruments;
+    }
+
+    public void setInstruments(List<InstrumentDTO> instruments) {
+        this.instruments = instruments;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public void setDeletedIds(List<Long> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public void setNext(long next) {
+        this.next = next;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentChangesDTO{" +
+            "instruments=" + instruments.size() +
+            ", deletedIds=" + deletedIds.size() +
+            ", next=" + next +
+            ", hasMore=" + hasMore +
+            "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.service.dto;
 
+import jakarta.validation.constraints.Size;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -11,8 +12,11 @@ public class InstrumentDTO implements Serializable {
 
     private Long id;
 
+    @Size(max = 255)
     private String name;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -29,6 +33,14 @@ public class InstrumentDTO implements Serializable {
         this.name = name;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -56,6 +68,7 @@ public class InstrumentDTO implements Serializable {
         return "InstrumentDTO{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
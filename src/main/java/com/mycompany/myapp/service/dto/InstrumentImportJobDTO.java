@@ -0,0 +1,133 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO representing the progress of a bulk instrument import.
+ */
+public class InstrumentImportJobDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        UPLOADING,
+        MERGING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private String id;
+
+    private Status status;
+
+    private long bytesRead;
+
+    private long rowsCopied;
+
+    private long inserted;
+
+    private long updated;
+
+    private long notFound;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    public long getRowsCopied() {
+        return rowsCopied;
+    }
+
+    public void setRowsCopied(long rowsCopied) {
+        this.rowsCopied = rowsCopied;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(long notFound) {
+        this.notFound = notFound;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InstrumentImportJobDTO{" +
+            "id='" + id + "'" +
+            ", status=" + status +
+            ", bytesRead=" + bytesRead +
+            ", rowsCopied=" + rowsCopied +
+            ", inserted=" + inserted +
+            ", updated=" + updated +
+            ", notFound=" + notFound +
+            "}";
+    }
+}
@@ -1,17 +1,53 @@
 package com.mycompany.myapp.service.impl;
 
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
+import com.mycompany.myapp.application.domain.model.InstrumentSnapshot;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Instrument;
+import com.mycompany.myapp.domain.InstrumentTombstone;
+import com.mycompany.myapp.management.InstrumentMetersService;
 import com.mycompany.myapp.repository.InstrumentRepository;
+import com.mycompany.myapp.repository.InstrumentTombstoneRepository;
 import com.mycompany.myapp.service.InstrumentService;
+import com.mycompany.myapp.service.InstrumentSnapshotIndex;
+import com.mycompany.myapp.service.dto.InstrumentBatchChunkDTO;
+import com.mycompany.myapp.service.dto.InstrumentBatchResultDTO;
+import com.mycompany.myapp.service.dto.InstrumentBulkDeleteResultDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO.ChangeType;
+import com.mycompany.myapp.service.dto.InstrumentChangesDTO;
 import com.mycompany.myapp.service.dto.InstrumentDTO;
 import com.mycompany.myapp.service.mapper.InstrumentMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service Implementation for managing {@link com.mycompany.myapp.domain.Instrument}.
@@ -20,65 +56,495 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class InstrumentServiceImpl implements InstrumentService {
 
+    // Rejections beyond these are only counted, so that a garbled file does not make a huge response
+    private static final int MAX_REPORTED_REJECTIONS_PER_CHUNK = 10;
+
     private final Logger log = LoggerFactory.getLogger(InstrumentServiceImpl.class);
 
     private final InstrumentRepository instrumentRepository;
 
+    private final InstrumentTombstoneRepository instrumentTombstoneRepository;
+
     private final InstrumentMapper instrumentMapper;
 
-    public InstrumentServiceImpl(InstrumentRepository instrumentRepository, InstrumentMapper instrumentMapper) {
+    private final InstrumentSnapshotIndex instrumentSnapshotIndex;
+
+    private final InstrumentMetersService instrumentMetersService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int batchChunkSize;
+
+    public InstrumentServiceImpl(
+        InstrumentRepository instrumentRepository,
+        InstrumentTombstoneRepository instrumentTombstoneRepository,
+        InstrumentMapper instrumentMapper,
+        InstrumentSnapshotIndex instrumentSnapshotIndex,
+        InstrumentMetersService instrumentMetersService,
+        ApplicationEventPublisher applicationEventPublisher,
+        Validator validator,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
         this.instrumentRepository = instrumentRepository;
+        this.instrumentTombstoneRepository = instrumentTombstoneRepository;
         this.instrumentMapper = instrumentMapper;
+        this.instrumentSnapshotIndex = instrumentSnapshotIndex;
+        this.instrumentMetersService = instrumentMetersService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchChunkSize = applicationProperties.getInstrumentBatch().getChunkSize();
     }
 
     @Override
     public InstrumentDTO save(InstrumentDTO instrumentDTO) {
         log.debug("Request to save Instrument : {}", instrumentDTO);
         Instrument instrument = instrumentMapper.toEntity(instrumentDTO);
+        instrument.setChangeSequence(nextChangeSequence());
         instrument = instrumentRepository.save(instrument);
-        return instrumentMapper.toDto(instrument);
+        instrumentSnapshotIndex.put(instrumentMapper.toModel(instrument));
+        return publishChange(ChangeType.CREATED, instrument);
     }
 
     @Override
-    public InstrumentDTO update(InstrumentDTO instrumentDTO) {
+    public Optional<InstrumentDTO> update(InstrumentDTO instrumentDTO) {
         log.debug("Request to update Instrument : {}", instrumentDTO);
-        Instrument instrument = instrumentMapper.toEntity(instrumentDTO);
-        instrument = instrumentRepository.save(instrument);
-        return instrumentMapper.toDto(instrument);
+        return updateInPlace(instrumentDTO, false);
     }
 
     @Override
     public Optional<InstrumentDTO> partialUpdate(InstrumentDTO instrumentDTO) {
         log.debug("Request to partially update Instrument : {}", instrumentDTO);
+        return updateInPlace(instrumentDTO, true);
+    }
+
+    /**
+     * Update an instrument with a single statement, telling a missing instrument from a stale version only when no row matched.
+     */
+    private Optional<InstrumentDTO> updateInPlace(InstrumentDTO instrumentDTO, boolean partial) {
+        Instrument instrument = instrumentMapper.toEntity(instrumentDTO);
+        Optional<Instrument> updated = instrumentRepository.updateInPlace(instrument, partial);
+        if (updated.isEmpty() && instrument.getVersion() != null && instrumentRepository.existsById(instrument.getId())) {
+            throw new OptimisticLockingFailureException(
+                "Instrument " + instrument.getId() + " is no longer at version " + instrument.getVersion()
+            );
+        }
+        return updated.map(saved -> {
+            instrumentSnapshotIndex.put(instrumentMapper.toModel(saved));
+            return publishChange(ChangeType.UPDATED, saved);
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public InstrumentBatchResultDTO saveAll(Iterator<InstrumentDTO> instrumentDTOs) {
+        log.debug("Request to save a batch of Instruments");
+        long start = System.nanoTime();
+        InstrumentBatchResultDTO result = new InstrumentBatchResultDTO();
+        List<InstrumentDTO> chunk = new ArrayList<>(batchChunkSize);
+        InstrumentBatchChunkDTO chunkResult = new InstrumentBatchChunkDTO();
+        long position = 0;
+        while (instrumentDTOs.hasNext()) {
+            position++;
+            String rejection = readValid(instrumentDTOs, chunk);
+            if (rejection != null) {
+                chunkResult.setRejected(chunkResult.getRejected() + 1);
+                if (chunkResult.getRejections().size() < MAX_REPORTED_REJECTIONS_PER_CHUNK) {
+                    chunkResult.getRejections().add("Instrument " + position + ": " + rejection);
+                }
+            }
+            if (chunk.size() + chunkResult.getRejected() == batchChunkSize || !instrumentDTOs.hasNext()) {
+                result.addChunk(saveChunk(result.getChunks().size(), chunk, chunkResult));
+                chunk.clear();
+                chunkResult = new InstrumentBatchChunkDTO();
+            }
+        }
+        long durationNanos = System.nanoTime() - start;
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        if (durationNanos > 0) {
+            result.setRowsPerSecond(result.getTotal() * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos);
+        }
+        log.debug("Saved a batch of Instruments : {}", result);
+        return result;
+    }
 
-        return instrumentRepository
-            .findById(instrumentDTO.getId())
-            .map(existingInstrument -> {
-                instrumentMapper.partialUpdate(existingInstrument, instrumentDTO);
+    /**
+     * Read the next instrument of a batch, and add it to the chunk if it is valid.
+     *
+     * @return why the instrument was rejected, or {@code null} if it was added.
+     */
+    private String readValid(Iterator<InstrumentDTO> instrumentDTOs, List<InstrumentDTO> chunk) {
+        InstrumentDTO instrumentDTO;
+        try {
+            instrumentDTO = instrumentDTOs.next();
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+        if (instrumentDTO == null) {
+            return "no instrument";
+        }
+        Set<ConstraintViolation<InstrumentDTO>> violations = validator.validate(instrumentDTO);
+        if (!violations.isEmpty()) {
+            return violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        chunk.add(instrumentDTO);
+        return null;
+    }
 
-                return existingInstrument;
-            })
-            .map(instrumentRepository::save)
-            .map(instrumentMapper::toDto);
+    /**
+     * Save one chunk of a batch in its own transaction (or in the caller's one, if any).
+     * <p>
+     * The instruments to update are loaded with a single query, so that merging them does not select them one by one,
+     * and the inserts and updates are then flushed as JDBC batches.
+     */
+    private InstrumentBatchChunkDTO saveChunk(int index, List<InstrumentDTO> chunk, InstrumentBatchChunkDTO chunkResult) {
+        long start = System.nanoTime();
+        chunkResult.setIndex(index);
+        chunkResult.setSize(chunk.size() + chunkResult.getRejected());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = chunk.stream().map(InstrumentDTO::getId).filter(Objects::nonNull).toList();
+                Map<Long, Instrument> existingInstruments = instrumentRepository
+                    .findAllById(ids)
+                    .stream()
+                    .collect(Collectors.toMap(Instrument::getId, Function.identity()));
+                List<Instrument> instruments = instrumentMapper
+                    .toEntity(chunk)
+                    .stream()
+                    .filter(instrument -> instrument.getId() == null || existingInstruments.containsKey(instrument.getId()))
+                    .toList();
+                instruments
+                    .stream()
+                    .filter(instrument -> instrument.getId() != null && instrument.getVersion() == null)
+                    .forEach(instrument -> instrument.setVersion(existingInstruments.get(instrument.getId()).getVersion()));
+                if (!instruments.isEmpty()) {
+                    Iterator<Long> changeSequences = instrumentRepository.nextChangeSequences(instruments.size()).iterator();
+                    instruments.forEach(instrument -> instrument.setChangeSequence(changeSequences.next()));
+                }
+                // persist assigns the generated ids, so new instruments are counted first
+                int created = (int) instruments.stream().filter(instrument -> instrument.getId() == null).count();
+                List<Instrument> saved = instrumentRepository.saveAll(instruments);
+                instrumentRepository.flush();
+                saved.forEach(instrument -> {
+                    instrumentSnapshotIndex.put(instrumentMapper.toModel(instrument));
+                    ChangeType type = existingInstruments.containsKey(instrument.getId()) ? ChangeType.UPDATED : ChangeType.CREATED;
+                    publishChange(type, instrument);
+                });
+                chunkResult.setCreated(created);
+                chunkResult.setUpdated(instruments.size() - created);
+                chunkResult.setNotFound(chunk.size() - instruments.size());
+            });
+            long durationNanos = System.nanoTime() - start;
+            instrumentMetersService.trackBatchChunk(
+                durationNanos,
+                chunkResult.getCreated(),
+                chunkResult.getUpdated(),
+                chunkResult.getNotFound()
+            );
+            chunkResult.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        } catch (RuntimeException e) {
+            log.warn("Could not save chunk {} of a batch of Instruments", index, e);
+            long durationNanos = System.nanoTime() - start;
+            instrumentMetersService.trackFailedBatchChunk(durationNanos, chunk.size());
+            chunkResult.setCreated(0);
+            chunkResult.setUpdated(0);
+            chunkResult.setNotFound(0);
+            chunkResult.setFailed(true);
+            chunkResult.setError(e.getMessage());
+            chunkResult.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+        return chunkResult;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<InstrumentDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Instruments");
-        return instrumentRepository.findAll(pageable).map(instrumentMapper::toDto);
+        Optional<Page<InstrumentModel>> snapshotPage = instrumentSnapshotIndex.findAll(pageable);
+        if (snapshotPage.isPresent()) {
+            return snapshotPage.get().map(instrumentMapper::toDto);
+        }
+        return readOnly(() -> instrumentRepository.findAllModels(pageable).map(instrumentMapper::toDto));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Slice<InstrumentDTO> findAllWithoutCount(Pageable pageable) {
+        log.debug("Request to get a slice of Instruments");
+        Optional<Page<InstrumentModel>> snapshotPage = instrumentSnapshotIndex.findAll(pageable);
+        if (snapshotPage.isPresent()) {
+            return snapshotPage.get().map(instrumentMapper::toDto);
+        }
+        return readOnly(() -> instrumentRepository.findAllModelsWithoutCount(pageable).map(instrumentMapper::toDto));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long estimateCount() {
+        Optional<InstrumentSnapshot> snapshot = instrumentSnapshotIndex.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().size();
+        }
+        return readOnly(() -> {
+            long estimate = instrumentRepository.estimateCount();
+            // a table that was never analyzed has no statistics yet
+            return estimate >= 0 ? estimate : instrumentRepository.count();
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Slice<InstrumentDTO> findAllAfter(long afterId, Pageable pageable) {
+        log.debug("Request to get Instruments after : {}", afterId);
+        Pageable keysetPageable = PageRequest.of(0, pageable.getPageSize(), Sort.by("id"));
+        Optional<Slice<InstrumentModel>> snapshotSlice = instrumentSnapshotIndex.findAllAfter(afterId, keysetPageable);
+        if (snapshotSlice.isPresent()) {
+            return snapshotSlice.get().map(instrumentMapper::toDto);
+        }
+        return readOnly(() -> instrumentRepository.findAllModelsByIdGreaterThan(afterId, keysetPageable).map(instrumentMapper::toDto));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<InstrumentDTO> searchByNamePrefix(String prefix, int limit) {
+        log.debug("Request to search Instruments by name prefix : {}", prefix);
+        Optional<List<InstrumentModel>> snapshotMatches = instrumentSnapshotIndex.searchByNamePrefix(prefix, limit);
+        if (snapshotMatches.isPresent()) {
+            return snapshotMatches.get().stream().map(instrumentMapper::toDto).toList();
+        }
+        return readOnly(() ->
+            instrumentMapper.toDto(
+                instrumentRepository.findByNameStartingWithIgnoreCase(prefix, PageRequest.of(0, limit, Sort.by("name", "id")))
+            )
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<InstrumentDTO> consumer) {
+        log.debug("Request to export all Instruments");
+        try (Stream<InstrumentModel> instruments = instrumentRepository.streamAllModels()) {
+            instruments.map(instrumentMapper::toDto).forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<InstrumentDTO> findAllById(List<Long> ids) {
+        log.debug("Request to get Instruments : {}", ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Optional<InstrumentSnapshot> snapshot = instrumentSnapshotIndex.current();
+        if (snapshot.isPresent()) {
+            return distinctIds.stream().map(snapshot.get()::get).filter(Objects::nonNull).map(instrumentMapper::toDto).toList();
+        }
+        return readOnly(() -> instrumentMapper.toDto(instrumentRepository.findAllByIdCacheFirst(distinctIds)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InstrumentChangesDTO findChangesSince(long since, int limit) {
+        log.debug("Request to get Instrument changes since : {}", since);
+        // one more change than needed tells whether there are changes after this page
+        List<InstrumentChangeEventDTO> events = changeEventsSince(since, limit + 1);
+        InstrumentChangesDTO changes = new InstrumentChangesDTO();
+        long next = since;
+        for (InstrumentChangeEventDTO event : events.subList(0, Math.min(limit, events.size()))) {
+            if (event.getType() == ChangeType.DELETED) {
+                changes.getDeletedIds().add(event.getId());
+            } else {
+                changes.getInstruments().add(event.getInstrument());
+            }
+            next = event.getChangeSequence();
+        }
+        changes.setNext(next);
+        changes.setHasMore(events.size() > limit);
+        return changes;
     }
 
     @Override
     @Transactional(readOnly = true)
+    public List<InstrumentChangeEventDTO> findChangeEventsSince(long since, int limit) {
+        log.debug("Request to get Instrument change events since : {}", since);
+        return changeEventsSince(since, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long findCommittedChangeSequence() {
+        return committedChangeSequence();
+    }
+
+    /**
+     * Get the changes after a change sequence value, merging the instruments and the tombstones in change order.
+     * <p>
+     * Only the last change of each instrument is kept: one still at its first version is reported as created, any later
+     * one as updated.
+     */
+    private List<InstrumentChangeEventDTO> changeEventsSince(long since, int limit) {
+        // The values are taken before commit: a change below one already committed may still be in progress, so the page
+        // stops before the oldest one that may be, lest the next request skip it
+        long committed = committedChangeSequence();
+        Pageable pageable = PageRequest.of(0, limit, Sort.by("changeSequence"));
+        List<Instrument> instruments = instrumentRepository.findByChangeSequenceGreaterThanAndChangeSequenceLessThanEqual(
+            since,
+            committed,
+            pageable
+        );
+        List<InstrumentTombstone> tombstones = instrumentTombstoneRepository.findByChangeSequenceGreaterThanAndChangeSequenceLessThanEqual(
+            since,
+            committed,
+            pageable
+        );
+        List<InstrumentChangeEventDTO> events = new ArrayList<>(Math.min(limit, instruments.size() + tombstones.size()));
+        int i = 0;
+        int j = 0;
+        while ((i < instruments.size() || j < tombstones.size()) && events.size() < limit) {
+            if (
+                j == tombstones.size() ||
+                (i < instruments.size() && instruments.get(i).getChangeSequence() < tombstones.get(j).getChangeSequence())
+            ) {
+                Instrument instrument = instruments.get(i++);
+                ChangeType type = Long.valueOf(0).equals(instrument.getVersion()) ? ChangeType.CREATED : ChangeType.UPDATED;
+                InstrumentDTO instrumentDTO = instrumentMapper.toDto(instrument);
+                events.add(new InstrumentChangeEventDTO(type, instrument.getId(), instrument.getChangeSequence(), instrumentDTO));
+            } else {
+                InstrumentTombstone tombstone = tombstones.get(j++);
+                events.add(
+                    new InstrumentChangeEventDTO(ChangeType.DELETED, tombstone.getInstrumentId(), tombstone.getChangeSequence(), null)
+                );
+            }
+        }
+        return events;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<InstrumentDTO> findOne(Long id) {
         log.debug("Request to get Instrument : {}", id);
-        return instrumentRepository.findById(id).map(instrumentMapper::toDto);
+        Optional<InstrumentSnapshot> snapshot = instrumentSnapshotIndex.current();
+        if (snapshot.isPresent()) {
+            return Optional.ofNullable(snapshot.get().get(id)).map(instrumentMapper::toDto);
+        }
+        return readOnly(() -> instrumentRepository.findById(id).map(instrumentMapper::toDto));
     }
 
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Instrument : {}", id);
-        instrumentRepository.deleteById(id);
+        instrumentRepository
+            .findById(id)
+            .ifPresent(instrument -> {
+                instrumentRepository.delete(instrument);
+                InstrumentTombstone tombstone = instrumentTombstoneRepository.save(
+                    new InstrumentTombstone().instrumentId(id).changeSequence(nextChangeSequence())
+                );
+                applicationEventPublisher.publishEvent(
+                    new InstrumentChangeEventDTO(ChangeType.DELETED, id, tombstone.getChangeSequence(), null)
+                );
+            });
+        instrumentSnapshotIndex.evict(id);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public InstrumentBulkDeleteResultDTO deleteAll(Collection<Long> ids) {
+        log.debug("Request to delete {} Instruments", ids.size());
+        long start = System.nanoTime();
+        InstrumentBulkDeleteResultDTO result = new InstrumentBulkDeleteResultDTO();
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        for (int from = 0; from < distinctIds.size(); from += batchChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + batchChunkSize, distinctIds.size()));
+            deleteChunk(result, () -> instrumentRepository.deleteAllByIdInBulk(chunk));
+        }
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.debug("Deleted Instruments : {}", result);
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public InstrumentBulkDeleteResultDTO deleteByNamePrefix(String prefix) {
+        log.debug("Request to delete Instruments by name prefix : {}", prefix);
+        long start = System.nanoTime();
+        InstrumentBulkDeleteResultDTO result = new InstrumentBulkDeleteResultDTO();
+        int deleted;
+        do {
+            deleted = deleteChunk(result, () -> instrumentRepository.deleteByNamePrefixInBulk(prefix, batchChunkSize));
+        } while (deleted == batchChunkSize); // a chunk short of the chunk size is the last one
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.debug("Deleted Instruments : {}", result);
+        return result;
+    }
+
+    /**
+     * Delete one chunk of instruments in its own transaction (or in the caller's one, if any).
+     *
+     * @return the number of instruments deleted.
+     */
+    private int deleteChunk(InstrumentBulkDeleteResultDTO result, Supplier<List<InstrumentTombstone>> delete) {
+        List<InstrumentTombstone> tombstones = transactionTemplate.execute(status -> {
+            List<InstrumentTombstone> deleted = delete.get();
+            deleted.forEach(tombstone -> {
+                instrumentSnapshotIndex.evict(tombstone.getInstrumentId());
+                applicationEventPublisher.publishEvent(
+                    new InstrumentChangeEventDTO(ChangeType.DELETED, tombstone.getInstrumentId(), tombstone.getChangeSequence(), null)
+                );
+            });
+            return deleted;
+        });
+        result.setDeleted(result.getDeleted() + tombstones.size());
+        result.setChunks(result.getChunks() + 1);
+        return tombstones.size();
+    }
+
+    /**
+     * Run a query in a read-only transaction (or in the caller's one, if any).
+     * <p>
+     * The reads the snapshot can serve are not transactional themselves, so that a snapshot hit takes no connection;
+     * only a miss, which queries the database, opens a transaction.
+     */
+    private <T> T readOnly(Supplier<T> query) {
+        return readOnlyTransactionTemplate.execute(status -> query.get());
+    }
+
+    /**
+     * Publish a change of an instrument, pushed to the instrument feed once the transaction commits.
+     */
+    private InstrumentDTO publishChange(ChangeType type, Instrument instrument) {
+        InstrumentDTO instrumentDTO = instrumentMapper.toDto(instrument);
+        applicationEventPublisher.publishEvent(
+            new InstrumentChangeEventDTO(type, instrument.getId(), instrument.getChangeSequence(), instrumentDTO)
+        );
+        return instrumentDTO;
+    }
+
+    /**
+     * Get the change sequence value up to which every change has either committed or been rolled back.
+     * <p>
+     * The last value taken is read first: each value up to it was taken by a transaction that was already holding its
+     * low-water mark, so it has either ended, and its changes are visible to the queries that follow, or it still holds
+     * a mark below its values.
+     */
+    private long committedChangeSequence() {
+        long last = instrumentRepository.lastChangeSequence();
+        Long oldestInFlight = instrumentRepository.oldestInFlightChangeSequence();
+        return oldestInFlight == null ? last : Math.min(last, oldestInFlight);
+    }
+
+    private long nextChangeSequence() {
+        return instrumentRepository.nextChangeSequences(1).get(0);
     }
 }
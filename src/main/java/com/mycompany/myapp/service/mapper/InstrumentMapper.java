@@ -1,5 +1,6 @@
 package com.mycompany.myapp.service.mapper;
 
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
 import com.mycompany.myapp.domain.Instrument;
 import com.mycompany.myapp.service.dto.InstrumentDTO;
 import org.mapstruct.*;
@@ -8,4 +9,22 @@ import org.mapstruct.*;
  * Mapper for the entity {@link Instrument} and its DTO {@link InstrumentDTO}.
  */
 @Mapper(componentModel = "spring")
-public interface InstrumentMapper extends EntityMapper<InstrumentDTO, Instrument> {}
+public interface InstrumentMapper extends EntityMapper<InstrumentDTO, Instrument> {
+    default InstrumentModel toModel(Instrument instrument) {
+        if (instrument == null) {
+            return null;
+        }
+        return new InstrumentModel(instrument.getId(), instrument.getName(), instrument.getVersion());
+    }
+
+    default InstrumentDTO toDto(InstrumentModel instrumentModel) {
+        if (instrumentModel == null) {
+            return null;
+        }
+        InstrumentDTO instrumentDTO = new InstrumentDTO();
+        instrumentDTO.setId(instrumentModel.getId());
+        instrumentDTO.setName(instrumentModel.getName());
+        instrumentDTO.setVersion(instrumentModel.getVersion());
+        return instrumentDTO;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.InstrumentImportService;
+import com.mycompany.myapp.service.dto.InstrumentImportJobDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for importing {@link com.mycompany.myapp.domain.Instrument}s in bulk.
+ */
+@RestController
+@RequestMapping("/api/admin/instruments/imports")
+public class InstrumentImportResource {
+
+    private final Logger log = LoggerFactory.getLogger(InstrumentImportResource.class);
+
+    private static final String ENTITY_NAME = "instrumentImport";
+
+    private static final String DELIMITERS = ",;|\t";
+
+    private final InstrumentImportService instrumentImportService;
+
+    public InstrumentImportResource(InstrumentImportService instrumentImportService) {
+        this.instrumentImportService = instrumentImportService;
+    }
+
+    /**
+     * {@code POST  /admin/instruments/imports} : Import instruments from a CSV body.
+     * <p>
+     * The body is streamed into the database as it is received, then merged into the instruments in the background.
+     * Rows with an id update that instrument, and are reported as not found if it does not exist; rows without an id
+     * create an instrument.
+     *
+     * @param delimiter the column delimiter, one of {@code ,}, {@code ;}, {@code |} or a tab.
+     * @param request the request, whose body is the CSV with an {@code id} and a {@code name} column after a header line.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the import job,
+     * or with status {@code 400 (Bad Request)} if the delimiter is not supported or the body could not be copied.
+     * @throws IOException if the body cannot be read.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping(value = "", consumes = "text/csv")
+    public ResponseEntity<InstrumentImportJobDTO> importInstruments(
+        @RequestParam(value = "delimiter", defaultValue = ";") String delimiter,
+        HttpServletRequest request
+    ) throws IOException, URISyntaxException {
+        log.debug("REST request to import Instruments with delimiter : {}", delimiter);
+        if (delimiter.length() != 1 || DELIMITERS.indexOf(delimiter.charAt(0)) < 0) {
+            throw new BadRequestAlertException("Unsupported delimiter", ENTITY_NAME, "delimiterinvalid");
+        }
+        InstrumentImportJobDTO result = instrumentImportService.importCsv(request.getInputStream(), delimiter.charAt(0));
+        if (result.getStatus() == InstrumentImportJobDTO.Status.FAILED) {
+            throw new BadRequestAlertException("Import failed: " + result.getError(), ENTITY_NAME, "importfailed");
+        }
+        return ResponseEntity.accepted().location(new URI("/api/admin/instruments/imports/" + result.getId())).body(result);
+    }
+
+    /**
+     * {@code GET  /admin/instruments/imports} : get the recent import jobs of this node.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body.
+     */
+    @GetMapping("")
+    public List<InstrumentImportJobDTO> getAllImports() {
+        log.debug("REST request to get all Instrument imports");
+        return instrumentImportService.findAllJobs();
+    }
+
+    /**
+     * {@code GET  /admin/instruments/imports/:id} : get an import job.
+     *
+     * @param id the id of the job to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<InstrumentImportJobDTO> getImport(@PathVariable("id") String id) {
+        log.debug("REST request to get Instrument import : {}", id);
+        return ResponseUtil.wrapOrNotFound(instrumentImportService.findJob(id));
+    }
+}
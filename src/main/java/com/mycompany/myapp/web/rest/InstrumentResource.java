@@ -1,22 +1,51 @@
 package com.mycompany.myapp.web.rest;
 
-import com.mycompany.myapp.repository.InstrumentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.InstrumentChangeFeed;
 import com.mycompany.myapp.service.InstrumentService;
+import com.mycompany.myapp.service.InstrumentSnapshotIndex;
+import com.mycompany.myapp.service.dto.InstrumentBatchResultDTO;
+import com.mycompany.myapp.service.dto.InstrumentBulkDeleteResultDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangesDTO;
 import com.mycompany.myapp.service.dto.InstrumentDTO;
+import com.mycompany.myapp.web.rest.SlicePaginationUtil.CountMode;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -33,16 +62,37 @@ public class InstrumentResource {
 
     private static final String ENTITY_NAME = "instrument";
 
+    private static final int MAX_SEARCH_SIZE = 100;
+
+    private static final int MAX_IDS = 10000;
+
+    private static final int MAX_CHANGES_SIZE = 10000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final InstrumentService instrumentService;
 
-    private final InstrumentRepository instrumentRepository;
+    private final InstrumentSnapshotIndex instrumentSnapshotIndex;
+
+    private final InstrumentChangeFeed instrumentChangeFeed;
 
-    public InstrumentResource(InstrumentService instrumentService, InstrumentRepository instrumentRepository) {
+    private final ObjectMapper objectMapper;
+
+    private final long feedTimeoutMillis;
+
+    public InstrumentResource(
+        InstrumentService instrumentService,
+        InstrumentSnapshotIndex instrumentSnapshotIndex,
+        InstrumentChangeFeed instrumentChangeFeed,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
         this.instrumentService = instrumentService;
-        this.instrumentRepository = instrumentRepository;
+        this.instrumentSnapshotIndex = instrumentSnapshotIndex;
+        this.instrumentChangeFeed = instrumentChangeFeed;
+        this.objectMapper = objectMapper;
+        this.feedTimeoutMillis = applicationProperties.getInstrumentFeed().getTimeout().toMillis();
     }
 
     /**
@@ -53,7 +103,7 @@ public class InstrumentResource {
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
-    public ResponseEntity<InstrumentDTO> createInstrument(@RequestBody InstrumentDTO instrumentDTO) throws URISyntaxException {
+    public ResponseEntity<InstrumentDTO> createInstrument(@Valid @RequestBody InstrumentDTO instrumentDTO) throws URISyntaxException {
         log.debug("REST request to save Instrument : {}", instrumentDTO);
         if (instrumentDTO.getId() != null) {
             throw new BadRequestAlertException("A new instrument cannot already have an ID", ENTITY_NAME, "idexists");
@@ -65,6 +115,89 @@ public class InstrumentResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /instruments/batch} : Create or update many instruments.
+     * <p>
+     * Instruments without an id are created, the others update the existing instrument with that id.
+     * They are written in chunked transactions, and a failed chunk does not stop the following ones.
+     *
+     * @param instrumentDTOs the instrumentDTOs to create or update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each chunk.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<InstrumentBatchResultDTO> saveInstruments(@RequestBody List<InstrumentDTO> instrumentDTOs) {
+        log.debug("REST request to save a batch of {} Instruments", instrumentDTOs.size());
+        InstrumentBatchResultDTO result = instrumentService.saveAll(instrumentDTOs.iterator());
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * {@code POST  /instruments/batch} : Create or update many instruments from a newline-delimited JSON stream.
+     * <p>
+     * Same as {@link #saveInstruments(List)}, but the body is read one instrument at a time while the chunks are written,
+     * so the whole file is never held in memory. A line that is not a valid instrument is rejected on its own.
+     *
+     * @param request the request, with one instrumentDTO per line in its body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each chunk.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<InstrumentBatchResultDTO> saveInstrumentsStream(HttpServletRequest request) throws IOException {
+        log.debug("REST request to save a stream of Instruments");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            NdjsonIterator instrumentDTOs = new NdjsonIterator(reader, objectMapper.readerFor(InstrumentDTO.class));
+            InstrumentBatchResultDTO result = instrumentService.saveAll(instrumentDTOs);
+            return ResponseEntity.ok().body(result);
+        }
+    }
+
+    /**
+     * Iterator over the lines of a newline-delimited JSON body, parsing each one on its own so that a malformed line
+     * only fails its own {@code next}.
+     */
+    private static final class NdjsonIterator implements Iterator<InstrumentDTO> {
+
+        private final BufferedReader reader;
+
+        private final ObjectReader instrumentReader;
+
+        private String nextLine;
+
+        private NdjsonIterator(BufferedReader reader, ObjectReader instrumentReader) {
+            this.reader = reader;
+            this.instrumentReader = instrumentReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null || nextLine.isBlank()) {
+                    nextLine = reader.readLine();
+                    if (nextLine == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public InstrumentDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            try {
+                return instrumentReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("not a valid instrument: " + e.getOriginalMessage(), e);
+            }
+        }
+    }
+
     /**
      * {@code PUT  /instruments/:id} : Updates an existing instrument.
      *
@@ -72,13 +205,15 @@ public class InstrumentResource {
      * @param instrumentDTO the instrumentDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated instrumentDTO,
      * or with status {@code 400 (Bad Request)} if the instrumentDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the instrumentDTO is not found,
+     * or with status {@code 409 (Conflict)} if the instrumentDTO has a version that is no longer the current one,
      * or with status {@code 500 (Internal Server Error)} if the instrumentDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<InstrumentDTO> updateInstrument(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody InstrumentDTO instrumentDTO
+        @Valid @RequestBody InstrumentDTO instrumentDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Instrument : {}, {}", id, instrumentDTO);
         if (instrumentDTO.getId() == null) {
@@ -88,15 +223,12 @@ public class InstrumentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!instrumentRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Optional<InstrumentDTO> result = instrumentService.update(instrumentDTO);
 
-        InstrumentDTO result = instrumentService.update(instrumentDTO);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, instrumentDTO.getId().toString()))
-            .body(result);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, instrumentDTO.getId().toString())
+        );
     }
 
     /**
@@ -107,6 +239,7 @@ public class InstrumentResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated instrumentDTO,
      * or with status {@code 400 (Bad Request)} if the instrumentDTO is not valid,
      * or with status {@code 404 (Not Found)} if the instrumentDTO is not found,
+     * or with status {@code 409 (Conflict)} if the instrumentDTO has a version that is no longer the current one,
      * or with status {@code 500 (Internal Server Error)} if the instrumentDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -123,10 +256,6 @@ public class InstrumentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!instrumentRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<InstrumentDTO> result = instrumentService.partialUpdate(instrumentDTO);
 
         return ResponseUtil.wrapOrNotFound(
@@ -137,31 +266,288 @@ public class InstrumentResource {
 
     /**
      * {@code GET  /instruments} : get all the instruments.
+     * <p>
+     * When a {@code cursor} is given, even an empty one for the first page, the instruments are paged by id instead of by offset:
+     * the sort and page number are ignored, no total count is computed, and the {@code Link} header gives the next page, if any.
+     * <p>
+     * When the instrument snapshot is loaded, the {@code ETag} is the version of the whole catalog, the same on every instance
+     * holding the same instruments, so a page is not read again until an instrument changes. Otherwise, it is derived from the
+     * page read, which saves sending it again but not reading it.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of instruments in body.
+     * @param cursor the continuation token returned by the previous page, if paging by id.
+     * @param count {@code exact} to count the instruments, {@code none} not to, or {@code estimate} for an estimate only.
+     * @param webRequest the request, checked against the catalog version.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of instruments in body,
+     * or with status {@code 304 (Not Modified)} if no instrument changed since the {@code If-None-Match} one,
+     * or with status {@code 400 (Bad Request)} if the cursor or the count mode is not valid.
      */
     @GetMapping("")
-    public ResponseEntity<List<InstrumentDTO>> getAllInstruments(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<InstrumentDTO>> getAllInstruments(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "count", defaultValue = "exact") String count,
+        WebRequest webRequest
+    ) {
+        CountMode countMode = CountMode
+            .fromParameter(count)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid count mode", ENTITY_NAME, "countinvalid"));
+        Optional<String> catalogVersion = instrumentSnapshotIndex.catalogVersion();
+        if (catalogVersion.isPresent() && webRequest.checkNotModified("\"" + catalogVersion.get() + "\"")) {
+            return null;
+        }
+        ResponseEntity<List<InstrumentDTO>> response = getInstruments(pageable, cursor, countMode);
+        if (catalogVersion.isEmpty() && webRequest.checkNotModified(contentETag(response))) {
+            return null;
+        }
+        return response;
+    }
+
+    private ResponseEntity<List<InstrumentDTO>> getInstruments(Pageable pageable, String cursor, CountMode countMode) {
+        if (cursor != null) {
+            return getInstrumentsAfterCursor(cursor, pageable);
+        }
+        if (countMode != CountMode.EXACT) {
+            log.debug("REST request to get a slice of Instruments");
+            Slice<InstrumentDTO> slice = instrumentService.findAllWithoutCount(pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                countMode,
+                instrumentService::estimateCount
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         log.debug("REST request to get a page of Instruments");
         Page<InstrumentDTO> page = instrumentService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * The entity tag of a list of instruments read from the database: a digest of the instruments and of the pagination
+     * headers, which only depends on what was read.
+     */
+    private static String contentETag(ResponseEntity<List<InstrumentDTO>> response) {
+        StringBuilder content = new StringBuilder(response.getHeaders().toString());
+        for (InstrumentDTO instrumentDTO : Objects.requireNonNull(response.getBody())) {
+            content
+                .append('\n')
+                .append(instrumentDTO.getId())
+                .append('\t')
+                .append(instrumentDTO.getVersion())
+                .append('\t')
+                .append(instrumentDTO.getName());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private ResponseEntity<List<InstrumentDTO>> getInstrumentsAfterCursor(String cursor, Pageable pageable) {
+        log.debug("REST request to get Instruments after cursor : {}", cursor);
+        Slice<InstrumentDTO> slice = instrumentService.findAllAfter(decodeCursor(cursor), pageable);
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            List<InstrumentDTO> content = slice.getContent();
+            String nextCursor = encodeCursor(content.get(content.size() - 1).getId());
+            String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("page")
+                .replaceQueryParam("sort")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /instruments/search?prefix=:prefix} : search the instruments whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix the name prefix.
+     * @param size the maximum number of instruments to return, at most 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching instruments in body, in name order,
+     * or with status {@code 400 (Bad Request)} if the prefix is empty.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<InstrumentDTO>> searchInstruments(
+        @RequestParam("prefix") String prefix,
+        @RequestParam(value = "size", defaultValue = "10") int size
+    ) {
+        log.debug("REST request to search Instruments by name prefix : {}", prefix);
+        if (prefix.isEmpty()) {
+            throw new BadRequestAlertException("Empty prefix", ENTITY_NAME, "prefixempty");
+        }
+        List<InstrumentDTO> result = instrumentService.searchByNamePrefix(prefix, Math.max(1, Math.min(size, MAX_SEARCH_SIZE)));
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * {@code GET  /instruments/by-ids?ids=:ids} : get the instruments with the given ids.
+     *
+     * @param ids the ids of the instrumentDTOs to retrieve, at most 10000.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of instruments found in body,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping("/by-ids")
+    public ResponseEntity<List<InstrumentDTO>> getInstrumentsByIds(@RequestParam("ids") List<Long> ids) {
+        log.debug("REST request to get {} Instruments by id", ids.size());
+        return ResponseEntity.ok().body(findInstrumentsByIds(ids));
+    }
+
+    /**
+     * {@code POST  /instruments/by-ids} : get the instruments with the given ids, for id lists too long for a query string.
+     *
+     * @param ids the ids of the instrumentDTOs to retrieve, at most 10000.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of instruments found in body,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @PostMapping("/by-ids")
+    public ResponseEntity<List<InstrumentDTO>> postInstrumentsByIds(@RequestBody List<Long> ids) {
+        log.debug("REST request to get {} Instruments by id", ids.size());
+        return ResponseEntity.ok().body(findInstrumentsByIds(ids));
+    }
+
+    private List<InstrumentDTO> findInstrumentsByIds(List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new BadRequestAlertException("Too many ids", ENTITY_NAME, "toomanyids");
+        }
+        return instrumentService.findAllById(ids);
+    }
+
+    /**
+     * {@code GET  /instruments/changes?since=:since} : get the instruments created, updated or deleted after a change sequence value.
+     * <p>
+     * A replica starts from {@code 0}, which returns the whole catalog, then passes the {@code next} value of each response
+     * as the following {@code since}, until {@code hasMore} is false. A change is only listed once every change before it
+     * has committed, so none is ever skipped.
+     *
+     * @param since the change sequence value to start after.
+     * @param size the maximum number of changes to return, at most 10000.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changed instruments and deleted ids in body, in change order.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<InstrumentChangesDTO> getInstrumentChanges(
+        @RequestParam("since") long since,
+        @RequestParam(value = "size", defaultValue = "1000") int size
+    ) {
+        log.debug("REST request to get Instrument changes since : {}", since);
+        InstrumentChangesDTO result = instrumentService.findChangesSince(since, Math.max(1, Math.min(size, MAX_CHANGES_SIZE)));
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * {@code GET  /instruments/feed} : subscribe to the instrument changes as Server-Sent Events.
+     * <p>
+     * Each create, update or delete committed on any instance is pushed as an event whose id is its change sequence value,
+     * in the order {@code /instruments/changes} lists them.
+     * A subscriber that falls too far behind is disconnected: it should then catch up from {@code /instruments/changes}
+     * with the id of the last event it received, and subscribe again.
+     *
+     * @return the {@link SseEmitter} streaming the changes.
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToInstrumentChanges() {
+        log.debug("REST request to subscribe to Instrument changes");
+        SseEmitter emitter = new SseEmitter(feedTimeoutMillis);
+        InstrumentChangeFeed.Subscription subscription = instrumentChangeFeed.subscribe(
+            new InstrumentChangeFeed.Subscriber() {
+                @Override
+                public void send(InstrumentChangeEventDTO event) throws IOException {
+                    emitter.send(SseEmitter.event().id(String.valueOf(event.getChangeSequence())).data(event, MediaType.APPLICATION_JSON));
+                }
+
+                @Override
+                public void close() {
+                    emitter.complete();
+                }
+            }
+        );
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * {@code GET  /instruments/export} : export all the instruments as newline-delimited JSON.
+     * <p>
+     * The instruments are written to the response as they are read from the database, so the whole catalog is never held in memory.
+     *
+     * @param response the response to write the instruments to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportInstruments(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Instruments");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (
+            SequenceWriter writer = objectMapper
+                .writerFor(InstrumentDTO.class)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())
+        ) {
+            instrumentService.exportAll(instrumentDTO -> {
+                try {
+                    writer.write(instrumentDTO);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     /**
      * {@code GET  /instruments/:id} : get the "id" instrument.
+     * <p>
+     * The {@code ETag} is the version of the instrument. When the instrument snapshot is loaded, it is checked before
+     * reading the instrument at all.
      *
      * @param id the id of the instrumentDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the instrumentDTO, or with status {@code 404 (Not Found)}.
+     * @param webRequest the request, checked against the instrument version.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the instrumentDTO,
+     * or with status {@code 304 (Not Modified)} if the instrument did not change since the {@code If-None-Match} one,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<InstrumentDTO> getInstrument(@PathVariable("id") Long id) {
+    public ResponseEntity<InstrumentDTO> getInstrument(@PathVariable("id") Long id, WebRequest webRequest) {
         log.debug("REST request to get Instrument : {}", id);
+        Optional<Long> snapshotVersion = instrumentSnapshotIndex
+            .current()
+            .map(snapshot -> snapshot.get(id))
+            .map(InstrumentModel::getVersion);
+        if (snapshotVersion.isPresent()) {
+            if (webRequest.checkNotModified(instrumentETag(id, snapshotVersion.get()))) {
+                return null;
+            }
+            return ResponseUtil.wrapOrNotFound(instrumentService.findOne(id));
+        }
         Optional<InstrumentDTO> instrumentDTO = instrumentService.findOne(id);
+        if (instrumentDTO.isPresent() && webRequest.checkNotModified(instrumentETag(id, instrumentDTO.get().getVersion()))) {
+            return null;
+        }
         return ResponseUtil.wrapOrNotFound(instrumentDTO);
     }
 
+    private static String instrumentETag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
     /**
      * {@code DELETE  /instruments/:id} : delete the "id" instrument.
      *
@@ -177,4 +563,45 @@ public class InstrumentResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code DELETE  /instruments} : delete many instruments, either by id or by name prefix.
+     * <p>
+     * The instruments are deleted in chunked transactions: if a chunk fails, the previous ones stay deleted, and sending
+     * the same request again completes the deletion.
+     *
+     * @param namePrefix the prefix of the names of the instruments to delete, ignoring case, if no ids are given.
+     * @param ids the ids of the instruments to delete, if no name prefix is given.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the deletion,
+     * or with status {@code 400 (Bad Request)} if neither or both of the ids and a non-blank name prefix are given.
+     */
+    @DeleteMapping("")
+    public ResponseEntity<InstrumentBulkDeleteResultDTO> deleteInstruments(
+        @RequestParam(value = "namePrefix", required = false) String namePrefix,
+        @RequestBody(required = false) Set<Long> ids
+    ) {
+        log.debug("REST request to delete Instruments by name prefix : {} or by ids", namePrefix);
+        if ((namePrefix == null) == (ids == null)) {
+            throw new BadRequestAlertException("Either ids or a name prefix must be given", ENTITY_NAME, "deletefilterinvalid");
+        }
+        InstrumentBulkDeleteResultDTO result;
+        if (namePrefix != null) {
+            if (namePrefix.isBlank()) {
+                throw new BadRequestAlertException("The name prefix must not be blank", ENTITY_NAME, "deletefilterinvalid");
+            }
+            result = instrumentService.deleteByNamePrefix(namePrefix);
+        } else {
+            result = instrumentService.deleteAll(ids);
+        }
+        return ResponseEntity
+            .ok()
+            .headers(
+                HeaderUtil.createAlert(
+                    applicationName,
+                    "Deleted " + ENTITY_NAME + "s: " + result.getDeleted(),
+                    String.valueOf(result.getDeleted())
+                )
+            )
+            .body(result);
+    }
 }
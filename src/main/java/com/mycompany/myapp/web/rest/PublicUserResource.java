@@ -2,12 +2,14 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.UserDTO;
+import com.mycompany.myapp.web.rest.SlicePaginationUtil.CountMode;
 import java.util.*;
 import java.util.Collections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -36,15 +38,30 @@ public class PublicUserResource {
      * {@code GET /users} : get all users with only public information - calling this method is allowed for anyone.
      *
      * @param pageable the pagination information.
+     * @param count {@code exact} to count the users, {@code none} not to, or {@code estimate} for an estimate only.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<UserDTO>> getAllPublicUsers(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "exact") String count
+    ) {
         log.debug("REST request to get all public User names");
-        if (!onlyContainsAllowedProperties(pageable)) {
+        Optional<CountMode> countMode = CountMode.fromParameter(count);
+        if (!onlyContainsAllowedProperties(pageable) || countMode.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
+        if (countMode.get() != CountMode.EXACT) {
+            final Slice<UserDTO> slice = userService.getAllPublicUsersWithoutCount(pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                countMode.get(),
+                userService::estimateUserCount
+            );
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
         final Page<UserDTO> page = userService.getAllPublicUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
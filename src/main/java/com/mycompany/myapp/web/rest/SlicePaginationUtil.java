@@ -0,0 +1,87 @@
+package com.mycompany.myapp.web.rest;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for paging without counting the total number of elements.
+ * <p>
+ * A paged endpoint takes a {@code count} parameter: {@code exact} (the default) counts the elements and sends the usual
+ * {@code X-Total-Count} and {@code Link} headers, {@code none} only tells whether there is a next page, and
+ * {@code estimate} also sends {@code X-Total-Count-Estimate}, taken from the table statistics instead of a count.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String HEADER_X_TOTAL_COUNT_ESTIMATE = "X-Total-Count-Estimate";
+
+    public enum CountMode {
+        EXACT,
+        ESTIMATE,
+        NONE;
+
+        /**
+         * Parse the {@code count} parameter, ignoring case.
+         *
+         * @param count the parameter value.
+         * @return the count mode, or empty if the value is not one.
+         */
+        public static Optional<CountMode> fromParameter(String count) {
+            for (CountMode mode : values()) {
+                if (mode.name().equals(count.toUpperCase(Locale.ROOT))) {
+                    return Optional.of(mode);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * Generate the pagination headers of a slice: {@code Link} to the first, previous and next pages, when they exist,
+     * and with {@link CountMode#ESTIMATE} the estimated total.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice.
+     * @param countMode the count mode, {@link CountMode#NONE} or {@link CountMode#ESTIMATE}.
+     * @param estimatedTotal the estimate of the total number of elements, only called with {@link CountMode#ESTIMATE}.
+     * @return the headers.
+     */
+    public static HttpHeaders generateSliceHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<?> slice,
+        CountMode countMode,
+        LongSupplier estimatedTotal
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (countMode == CountMode.ESTIMATE) {
+            headers.add(HEADER_X_TOTAL_COUNT_ESTIMATE, Long.toString(estimatedTotal.getAsLong()));
+        }
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(",");
+        }
+        if (slice.hasPrevious()) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", pageNumber)
+            .replaceQueryParam("size", pageSize)
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.application.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class InstrumentSnapshotTest {
+
+    @Test
+    void lookupInSnapshotBuiltFromUnorderedInstruments() {
+        InstrumentSnapshot snapshot = InstrumentSnapshot.of(
+            List.of(new InstrumentModel(3L, "c", 0L), new InstrumentModel(1L, "a", 0L), new InstrumentModel(2L, "b", 0L))
+        );
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.get(2L).getName()).isEqualTo("b");
+        assertThat(snapshot.get(4L)).isNull();
+        assertThat(InstrumentSnapshot.empty().get(1L)).isNull();
+    }
+
+    @Test
+    void sliceInBothDirections() {
+        InstrumentSnapshot snapshot = InstrumentSnapshot.of(
+            List.of(new InstrumentModel(1L, "a", 0L), new InstrumentModel(2L, "b", 0L), new InstrumentModel(3L, "c", 0L))
+        );
+
+        assertThat(snapshot.slice(1, 5, false)).extracting(InstrumentModel::getId).containsExactly(2L, 3L);
+        assertThat(snapshot.slice(0, 2, true)).extracting(InstrumentModel::getId).containsExactly(3L, 2L);
+        assertThat(snapshot.slice(3, 2, false)).isEmpty();
+    }
+
+    @Test
+    void withChangesLeavesOriginalSnapshotUntouched() {
+        InstrumentSnapshot snapshot = InstrumentSnapshot.of(List.of(new InstrumentModel(1L, "a", 0L), new InstrumentModel(3L, "c", 0L)));
+        Map<Long, InstrumentModel> changes = new HashMap<>();
+        changes.put(1L, null);
+        changes.put(2L, new InstrumentModel(2L, "b", 0L));
+        changes.put(3L, new InstrumentModel(3L, "cc", 0L));
+
+        InstrumentSnapshot updated = snapshot.withChanges(changes);
+
+        assertThat(updated.slice(0, 10, false)).extracting(InstrumentModel::getName).containsExactly("b", "cc");
+        assertThat(snapshot.slice(0, 10, false)).extracting(InstrumentModel::getName).containsExactly("a", "c");
+    }
+
+    @Test
+    void searchByNamePrefixIgnoresCaseAndFollowsChanges() {
+        InstrumentSnapshot snapshot = InstrumentSnapshot.of(
+            List.of(new InstrumentModel(1L, "apricot", 0L), new InstrumentModel(2L, "Apple", 0L), new InstrumentModel(3L, "banana", 0L))
+        );
+        Map<Long, InstrumentModel> changes = new HashMap<>();
+        changes.put(1L, null);
+        changes.put(3L, new InstrumentModel(3L, "APEX", 0L));
+
+        InstrumentSnapshot updated = snapshot.withChanges(changes);
+
+        assertThat(snapshot.searchByNamePrefix("AP", 10)).extracting(InstrumentModel::getId).containsExactly(2L, 1L);
+        assertThat(snapshot.searchByNamePrefix("ap", 1)).extracting(InstrumentModel::getId).containsExactly(2L);
+        assertThat(updated.searchByNamePrefix("ap", 10)).extracting(InstrumentModel::getId).containsExactly(3L, 2L);
+        assertThat(updated.searchByNamePrefix("b", 10)).isEmpty();
+    }
+
+    @Test
+    void digestOnlyDependsOnTheInstruments() {
+        InstrumentSnapshot snapshot = InstrumentSnapshot.of(List.of(new InstrumentModel(1L, "a", 0L), new InstrumentModel(3L, "c", 0L)));
+        Map<Long, InstrumentModel> changes = new HashMap<>();
+        changes.put(1L, null);
+        changes.put(2L, new InstrumentModel(2L, "b", 0L));
+        changes.put(3L, new InstrumentModel(3L, "c", 1L));
+
+        InstrumentSnapshot updated = snapshot.withChanges(changes);
+        InstrumentSnapshot rebuilt = InstrumentSnapshot.of(List.of(new InstrumentModel(3L, "c", 1L), new InstrumentModel(2L, "b", 0L)));
+
+        assertThat(updated.digest()).isEqualTo(rebuilt.digest()).isNotEqualTo(snapshot.digest());
+        assertThat(snapshot.withChanges(Map.of(1L, new InstrumentModel(1L, "a", 1L))).digest()).isNotEqualTo(snapshot.digest());
+        assertThat(InstrumentSnapshot.of(List.of()).digest()).isEqualTo(InstrumentSnapshot.empty().digest());
+    }
+}
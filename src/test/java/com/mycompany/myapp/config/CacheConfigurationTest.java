@@ -0,0 +1,108 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the per region configuration of the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    private static final String REGION = "region";
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheConfiguration cacheConfiguration;
+
+    @BeforeEach
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getEhcache().setMaxEntries(100);
+        jHipsterProperties.getCache().getEhcache().setTimeToLiveSeconds(3600);
+        applicationProperties = new ApplicationProperties();
+        cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+    }
+
+    @Test
+    void shouldUseJHipsterDefaultsForUnlistedRegion() {
+        org.ehcache.config.CacheConfiguration<?, ?> configuration = ehcacheConfiguration(true);
+
+        assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+        assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        assertThat(configuration.getResourcePools().getResourceTypeSet()).doesNotContain(ResourceType.Core.OFFHEAP);
+        assertThat(expiryForCreation(configuration)).isEqualTo(Duration.ofHours(1));
+        assertThat(expiryForAccess(configuration)).isNull();
+    }
+
+    @Test
+    void shouldUseRegionSizesAndTimeToLive() {
+        ApplicationProperties.Cache.Region region = addRegion();
+        region.setHeapEntries(10L);
+        region.setOffheapSize(DataSize.ofMegabytes(2));
+        region.setTimeToLive(Duration.ofMinutes(5));
+
+        org.ehcache.config.CacheConfiguration<?, ?> configuration = ehcacheConfiguration(true);
+
+        ResourcePools resourcePools = configuration.getResourcePools();
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.OFFHEAP).getSize()).isEqualTo(2 * 1024 * 1024);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.OFFHEAP).getUnit()).isEqualTo(MemoryUnit.B);
+        assertThat(expiryForCreation(configuration)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldPreferHeapSizeAndTimeToIdle() {
+        ApplicationProperties.Cache.Region region = addRegion();
+        region.setHeapEntries(10L);
+        region.setHeapSize(DataSize.ofKilobytes(64));
+        region.setTimeToLive(Duration.ofMinutes(5));
+        region.setTimeToIdle(Duration.ofMinutes(1));
+
+        org.ehcache.config.CacheConfiguration<?, ?> configuration = ehcacheConfiguration(true);
+
+        assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(64 * 1024);
+        assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(MemoryUnit.B);
+        assertThat(expiryForCreation(configuration)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(expiryForAccess(configuration)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldNotExpireNonExpiringRegion() {
+        addRegion().setTimeToLive(Duration.ofMinutes(5));
+
+        org.ehcache.config.CacheConfiguration<?, ?> configuration = ehcacheConfiguration(false);
+
+        assertThat(expiryForCreation(configuration)).isEqualTo(org.ehcache.expiry.ExpiryPolicy.INFINITE);
+    }
+
+    private ApplicationProperties.Cache.Region addRegion() {
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        applicationProperties.getCache().getRegions().put(REGION, region);
+        return region;
+    }
+
+    private org.ehcache.config.CacheConfiguration<?, ?> ehcacheConfiguration(boolean expiring) {
+        Eh107Configuration<?, ?> configuration = (Eh107Configuration<?, ?>) cacheConfiguration.jcacheConfiguration(REGION, expiring);
+        return configuration.unwrap(org.ehcache.config.CacheConfiguration.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Duration expiryForCreation(org.ehcache.config.CacheConfiguration<?, ?> configuration) {
+        return ((org.ehcache.expiry.ExpiryPolicy<Object, Object>) configuration.getExpiryPolicy()).getExpiryForCreation("key", "value");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Duration expiryForAccess(org.ehcache.config.CacheConfiguration<?, ?> configuration) {
+        return ((org.ehcache.expiry.ExpiryPolicy<Object, Object>) configuration.getExpiryPolicy()).getExpiryForAccess("key", () -> "value");
+    }
+}
@@ -0,0 +1,129 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.management.SecurityMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+class CachingJwtDecoderTest {
+
+    private static final int MAX_ENTRIES = 10;
+
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Instant> expiries;
+
+    private AtomicInteger decodes;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiries = new HashMap<>();
+        decodes = new AtomicInteger();
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthorityPrefix("");
+        authoritiesConverter.setAuthoritiesClaimName("auth");
+        decoder = new CachingJwtDecoder(
+            token -> {
+                decodes.incrementAndGet();
+                if (!expiries.containsKey(token)) {
+                    throw new BadJwtException("Invalid signature");
+                }
+                return Jwt
+                    .withTokenValue(token)
+                    .header("alg", "HS512")
+                    .subject("user")
+                    .claim("auth", "ROLE_USER ROLE_ADMIN")
+                    .issuedAt(Instant.now().minusSeconds(60))
+                    .expiresAt(expiries.get(token))
+                    .build();
+            },
+            authoritiesConverter,
+            MAX_ENTRIES,
+            new SecurityMetersService(meterRegistry, "HS512")
+        );
+    }
+
+    @Test
+    void testVerifiedTokenIsDecodedOnce() {
+        expiries.put("token", Instant.now().plusSeconds(3600));
+
+        Jwt first = decoder.decode("token");
+        Jwt second = decoder.decode("token");
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodes.get()).isEqualTo(1);
+        assertThat(verifiedTokens("hit")).isEqualTo(1);
+        assertThat(verifiedTokens("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testVerifiedTokenComesWithItsAuthorities() {
+        expiries.put("token", Instant.now().plusSeconds(3600));
+
+        Jwt jwt = decoder.decode("token");
+
+        assertThat(jwt).isInstanceOf(CachingJwtDecoder.VerifiedJwt.class);
+        assertThat(((CachingJwtDecoder.VerifiedJwt) jwt).getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(jwt.getSubject()).isEqualTo("user");
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        expiries.put("token", Instant.now().minusSeconds(10));
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        assertThat(decodes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testInvalidTokenIsNotCached() {
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        assertThat(decodes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        for (int i = 0; i < MAX_ENTRIES * 3; i++) {
+            expiries.put("token-" + i, Instant.now().plusSeconds(3600));
+            decoder.decode("token-" + i);
+        }
+        decodes.set(0);
+
+        for (int i = 0; i < MAX_ENTRIES * 3; i++) {
+            decoder.decode("token-" + i);
+        }
+
+        // At most the last entries can have been kept
+        assertThat(decodes.get()).isGreaterThanOrEqualTo(MAX_ENTRIES * 2);
+    }
+
+    @Test
+    void testDigestDoesNotContainTheToken() {
+        assertThat(CachingJwtDecoder.digest("header.payload.signature")).hasSize(64).doesNotContain("payload");
+    }
+
+    private double verifiedTokens(String result) {
+        return meterRegistry.get("security.authentication.verified-tokens").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,117 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link CompactCacheSerializer} class.
+ */
+class CompactCacheSerializerTest {
+
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(getClass().getClassLoader());
+
+    private final PlainJavaSerializer<Object> javaSerializer = new PlainJavaSerializer<>(getClass().getClassLoader());
+
+    @Test
+    void shouldRoundTripKeysAndSimpleValues() throws Exception {
+        for (Object value : List.of(0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, 1_500_000L, 42, true, false, "", "t\u00fcr", Instant.now())) {
+            assertThat(roundTrip(value)).isEqualTo(value);
+        }
+        assertThat(roundTrip(null)).isNull();
+    }
+
+    @Test
+    void shouldRoundTripUserStateCompactly() throws Exception {
+        Map<String, Object> state = userState();
+
+        assertThat(roundTrip(state)).isEqualTo(state);
+        assertThat(serializer.serialize(state).remaining()).isLessThan(javaSerializer.serialize(state).remaining() / 2);
+    }
+
+    @Test
+    void shouldRoundTripInstrumentStateCompactly() throws Exception {
+        Map<String, Object> state = instrumentState();
+
+        assertThat(roundTrip(state)).isEqualTo(state);
+        assertThat(serializer.serialize(state).remaining()).isLessThan(javaSerializer.serialize(state).remaining() / 4);
+        assertThat(serializer.serialize(1_500_000L).remaining()).isLessThan(javaSerializer.serialize(1_500_000L).remaining() / 10);
+    }
+
+    @Test
+    void shouldCompactStateWrappedInSerializableValue() throws Exception {
+        // Like the item a read-write region wraps around an entity state
+        ArrayList<Object> item = new ArrayList<>(List.of(instrumentState(), 3L));
+
+        assertThat(roundTrip(item)).isEqualTo(item);
+        assertThat(serializer.serialize(item).remaining()).isLessThan(javaSerializer.serialize(item).remaining());
+    }
+
+    @Test
+    void shouldFallBackToJavaSerialization() throws Exception {
+        HashMap<String, Object> state = instrumentState();
+        state.put("tags", new ArrayList<>(List.of("a", "b")));
+
+        assertThat(roundTrip(state)).isEqualTo(state);
+        assertThat(roundTrip(new Value("x"))).isEqualTo(new Value("x"));
+    }
+
+    @Test
+    void shouldCompareWithSerializedForm() throws Exception {
+        ByteBuffer binary = serializer.serialize(instrumentState());
+
+        assertThat(serializer.equals(instrumentState(), binary.duplicate())).isTrue();
+        assertThat(serializer.equals(userState(), binary.duplicate())).isFalse();
+    }
+
+    private Object roundTrip(Object value) throws Exception {
+        ByteBuffer binary = serializer.serialize(value);
+        // Off-heap entries are read from direct buffers
+        ByteBuffer direct = ByteBuffer.allocateDirect(binary.remaining());
+        direct.put(binary).flip();
+        return serializer.read(direct);
+    }
+
+    private static HashMap<String, Object> instrumentState() {
+        HashMap<String, Object> state = new HashMap<>();
+        state.put("_subclass", "com.mycompany.myapp.domain.Instrument");
+        state.put("_version", 3L);
+        state.put("name", "EURUSD");
+        state.put("version", 3L);
+        state.put("changeSequence", 1_234_567L);
+        return state;
+    }
+
+    private static HashMap<String, Object> userState() {
+        HashMap<String, Object> state = new HashMap<>();
+        state.put("_subclass", "com.mycompany.myapp.domain.User");
+        state.put("_version", null);
+        state.put("login", "user");
+        state.put("password", "$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K");
+        state.put("firstName", "John");
+        state.put("lastName", "Doe");
+        state.put("email", "john.doe@localhost");
+        state.put("activated", true);
+        state.put("langKey", "en");
+        state.put("imageUrl", null);
+        state.put("activationKey", null);
+        state.put("resetKey", null);
+        state.put("resetDate", null);
+        state.put("authorities", 2L);
+        state.put("createdBy", "system");
+        state.put("createdDate", Instant.parse("2024-01-01T00:00:00Z"));
+        state.put("lastModifiedBy", "system");
+        state.put("lastModifiedDate", Instant.parse("2024-01-01T00:00:00Z"));
+        return state;
+    }
+
+    private record Value(String value) implements Serializable {}
+}
@@ -0,0 +1,108 @@
+package com.mycompany.myapp.config;
+
+import static com.mycompany.myapp.security.SecurityUtils.JWT_ALGORITHM;
+import static com.mycompany.myapp.security.jwt.JwtAuthenticationTestUtils.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.management.SecurityMetersService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+class MeteredJwtDecoderTest {
+
+    private static final String JWT_KEY =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private MeterRegistry meterRegistry;
+
+    private MeteredJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        NimbusJwtDecoder nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKey()).macAlgorithm(JWT_ALGORITHM).build();
+        nimbusJwtDecoder.setJwtValidator(MeteredJwtDecoder.jwtValidator());
+        decoder = new MeteredJwtDecoder(
+            nimbusJwtDecoder,
+            JWT_ALGORITHM.getName(),
+            new SecurityMetersService(meterRegistry, JWT_ALGORITHM.getName())
+        );
+    }
+
+    @Test
+    void testValidTokenIsTimed() {
+        decoder.decode(createValidToken(JWT_KEY));
+
+        assertThat(decodings("success", "HS512")).isEqualTo(1);
+    }
+
+    @Test
+    void testExpiredTokenIsClassified() {
+        assertRejected(createExpiredToken(JWT_KEY), "expired", "HS512");
+    }
+
+    @Test
+    void testTokenWithInvalidSignatureIsClassified() {
+        assertRejected(createTokenWithDifferentSignature(), "invalid-signature", "HS512");
+    }
+
+    @Test
+    void testMalformedTokensAreClassified() throws Exception {
+        assertRejected(createInvalidToken(JWT_KEY), "malformed", "HS512");
+        assertRejected(createSignedInvalidJwt(JWT_KEY), "malformed", "HS512");
+    }
+
+    @Test
+    void testTokenOfAnotherAlgorithmIsClassified() {
+        JwtClaimsSet claims = JwtClaimsSet.builder().subject("anonymous").expiresAt(Instant.now().plusSeconds(60)).build();
+        String token = new NimbusJwtEncoder(new ImmutableSecret<>(secretKey()))
+            .encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+            .getTokenValue();
+
+        assertRejected(token, "unsupported", "HS256");
+    }
+
+    private void assertRejected(String token, String cause, String algorithm) {
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+
+        assertThat(
+            meterRegistry
+                .get(SecurityMetersService.INVALID_TOKENS_METER_NAME)
+                .tag("cause", cause)
+                .tag("algorithm", algorithm)
+                .counter()
+                .count()
+        )
+            .isPositive();
+        assertThat(decodings(cause, algorithm)).isPositive();
+    }
+
+    private long decodings(String outcome, String algorithm) {
+        return meterRegistry
+            .get(SecurityMetersService.TOKEN_DECODING_METER_NAME)
+            .tag("outcome", outcome)
+            .tag("algorithm", algorithm)
+            .timer()
+            .count();
+    }
+
+    private static SecretKey secretKey() {
+        byte[] keyBytes = Base64.from(JWT_KEY).decode();
+        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
+    }
+}
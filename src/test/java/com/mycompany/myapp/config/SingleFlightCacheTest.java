@@ -0,0 +1,201 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class SingleFlightCacheTest {
+
+    private static final int CALLERS = 8;
+
+    private MeterRegistry meterRegistry;
+
+    private Cache unknownKeys;
+
+    private SingleFlightCache cache;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        unknownKeys = new ConcurrentMapCache("unknownUsersByLogin");
+        cache = new SingleFlightCache(new ConcurrentMapCache("usersByLogin"), unknownKeys, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentMissesRunASingleLoad() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(
+            executor.submit(() ->
+                cache.get("user", () -> {
+                    calls.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return "value";
+                })
+            )
+        );
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get("user", () -> "value " + calls.incrementAndGet())));
+        }
+        // The callers are waiting for the load once they are counted
+        while (loads("coalesced") < CALLERS - 1) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(loads("loaded")).isEqualTo(1);
+        Cache.ValueWrapper cached = cache.get("user");
+        assertThat(cached).isNotNull();
+        assertThat(cached.get()).isEqualTo("value");
+    }
+
+    @Test
+    void testCachedValueIsNotLoaded() {
+        cache.put("user", "cached");
+
+        assertThat(cache.get("user", () -> "loaded")).isEqualTo("cached");
+        assertThat(loads("loaded")).isZero();
+    }
+
+    @Test
+    void testUnknownKeyIsCachedApart() {
+        assertThat(cache.<String>get("unknown", () -> null)).isNull();
+        assertThat(cache.get("unknown", () -> "loaded")).isNull();
+
+        assertThat(loads("loaded")).isEqualTo(1);
+        assertThat(unknownKeys.get("unknown")).isNotNull();
+        assertThat((Map<?, ?>) cache.getNativeCache()).doesNotContainKey("unknown");
+    }
+
+    @Test
+    void testEvictedUnknownKeyIsLoaded() {
+        cache.get("user", () -> null);
+
+        cache.evict("user");
+
+        assertThat(cache.get("user", () -> "value")).isEqualTo("value");
+        assertThat(unknownKeys.get("user")).isNull();
+    }
+
+    @Test
+    void testOldEntryIsServedWhileRefreshed() {
+        List<Runnable> refreshes = new ArrayList<>();
+        SingleFlightCache refreshingCache = new SingleFlightCache(
+            new ConcurrentMapCache("usersByLogin"),
+            unknownKeys,
+            Duration.ZERO,
+            refreshes::add,
+            meterRegistry
+        );
+        refreshingCache.get("user", () -> "old");
+
+        assertThat(refreshingCache.get("user", () -> "new")).isEqualTo("old");
+        assertThat(refreshingCache.get("user", () -> "newer")).isEqualTo("old");
+        assertThat(refreshes).hasSize(1);
+        assertThat(loads("refreshed")).isEqualTo(1);
+
+        refreshes.get(0).run();
+
+        assertThat(refreshingCache.get("user", () -> "newer")).isEqualTo("new");
+        assertThat(refreshingCache.get("user", String.class)).isEqualTo("new");
+    }
+
+    @Test
+    void testRefreshRunsWithoutTheContextOfTheCaller() throws Exception {
+        SingleFlightCache refreshingCache = new SingleFlightCache(
+            new ConcurrentMapCache("usersByLogin"),
+            unknownKeys,
+            Duration.ZERO,
+            executor,
+            meterRegistry
+        );
+        refreshingCache.get("user", () -> "old");
+        AtomicReference<Authentication> refreshAuthentication = new AtomicReference<>();
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("caller", "password"));
+        try {
+            refreshingCache.get("user", () -> {
+                refreshAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+                refreshed.countDown();
+                return "new";
+            });
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(refreshAuthentication.get()).isNull();
+    }
+
+    @Test
+    void testRecentEntryIsNotRefreshed() {
+        List<Runnable> refreshes = new ArrayList<>();
+        SingleFlightCache refreshingCache = new SingleFlightCache(
+            new ConcurrentMapCache("usersByLogin"),
+            unknownKeys,
+            Duration.ofHours(1),
+            refreshes::add,
+            meterRegistry
+        );
+        refreshingCache.get("user", () -> "old");
+
+        assertThat(refreshingCache.get("user", () -> "new")).isEqualTo("old");
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void testFailedLoadIsRetried() {
+        assertThatThrownBy(() ->
+                cache.get("user", () -> {
+                    throw new IllegalStateException("database down");
+                })
+            )
+            .isInstanceOf(Cache.ValueRetrievalException.class)
+            .hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("user", () -> "value")).isEqualTo("value");
+        assertThat(loads("loaded")).isEqualTo(2);
+    }
+
+    private double loads(String result) {
+        return meterRegistry.get("cache.loads").tag("cache", "usersByLogin").tag("result", result).counter().count();
+    }
+}
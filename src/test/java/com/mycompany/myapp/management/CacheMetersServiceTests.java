@@ -0,0 +1,119 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withPercentage;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheMetersServiceTests {
+
+    private static final String CACHE = "usersByLogin";
+
+    private static final String ENTITY_REGION = "com.mycompany.myapp.domain.Instrument";
+
+    private static final String MISSING_REGION = "com.mycompany.myapp.domain.User";
+
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private CacheStatisticsMXBean cacheStatistics;
+
+    private CacheStatistics ehcacheStatistics;
+
+    private ObjectName objectName;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = mock(Statistics.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getURI()).thenReturn(new URI("urn:X-test:cache-meters"));
+        when(cacheManager.getCacheNames()).thenReturn(List.of(CACHE));
+
+        cacheStatistics = mock(CacheStatisticsMXBean.class);
+        objectName = CacheMetersService.statisticsObjectName(cacheManager, CACHE);
+        ManagementFactory
+            .getPlatformMBeanServer()
+            .registerMBean(new StandardMBean(cacheStatistics, CacheStatisticsMXBean.class, true), objectName);
+
+        ehcacheStatistics = mock(CacheStatistics.class);
+        new CacheMetersService(
+            meterRegistry,
+            cacheManager,
+            cacheName -> CACHE.equals(cacheName) ? ehcacheStatistics : null,
+            statistics,
+            List.of(ENTITY_REGION, MISSING_REGION)
+        );
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        if (mBeanServer.isRegistered(objectName)) {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    void testGetLatencyIsPublishedInSeconds() {
+        when(cacheStatistics.getAverageGetTime()).thenReturn(250f);
+
+        assertThat(meterRegistry.get("cache.get.latency").tag("cache", CACHE).gauge().value()).isCloseTo(0.00025, withPercentage(0.1));
+    }
+
+    @Test
+    void testSizeIsTheMappingsOfTheLowestTier() {
+        TierStatistics onHeap = mock(TierStatistics.class);
+        when(onHeap.getMappings()).thenReturn(10L);
+        TierStatistics offHeap = mock(TierStatistics.class);
+        when(offHeap.getMappings()).thenReturn(25L);
+        when(ehcacheStatistics.getTierStatistics()).thenReturn(Map.of("OnHeap", onHeap, "OffHeap", offHeap));
+
+        assertThat(meterRegistry.get("cache.size").tag("cache", CACHE).gauge().value()).isEqualTo(25);
+    }
+
+    @Test
+    void testEntityRegionHitsMissesAndPutsArePublished() {
+        CacheRegionStatistics regionStatistics = mock(CacheRegionStatistics.class);
+        when(regionStatistics.getHitCount()).thenReturn(7L);
+        when(regionStatistics.getMissCount()).thenReturn(2L);
+        when(regionStatistics.getPutCount()).thenReturn(3L);
+        when(statistics.getDomainDataRegionStatistics(ENTITY_REGION)).thenReturn(regionStatistics);
+
+        assertThat(requests(ENTITY_REGION, "hit")).isEqualTo(7);
+        assertThat(requests(ENTITY_REGION, "miss")).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.entity.puts").tag("region", ENTITY_REGION).functionCounter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testMissingRegionIsPublishedAsZero() {
+        when(statistics.getDomainDataRegionStatistics(MISSING_REGION)).thenThrow(new IllegalArgumentException("Unknown cache region"));
+
+        assertThat(requests(MISSING_REGION, "hit")).isZero();
+        assertThat(requests(MISSING_REGION, "miss")).isZero();
+    }
+
+    private double requests(String region, String result) {
+        return meterRegistry.get("cache.entity.requests").tag("region", region).tag("result", result).functionCounter().count();
+    }
+}
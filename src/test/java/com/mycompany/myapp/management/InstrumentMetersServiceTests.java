@@ -0,0 +1,44 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InstrumentMetersServiceTests {
+
+    private static final String BATCH_CHUNKS_METER_EXPECTED_NAME = "instrument.batch.chunks";
+
+    private static final String BATCH_ROWS_METER_EXPECTED_NAME = "instrument.batch.rows";
+
+    private MeterRegistry meterRegistry;
+
+    private InstrumentMetersService instrumentMetersService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        instrumentMetersService = new InstrumentMetersService(meterRegistry);
+    }
+
+    @Test
+    void testBatchChunkIsTracked() {
+        instrumentMetersService.trackBatchChunk(1_000_000, 3, 2, 1);
+
+        assertThat(meterRegistry.get(BATCH_CHUNKS_METER_EXPECTED_NAME).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(BATCH_ROWS_METER_EXPECTED_NAME).tag("result", "created").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(BATCH_ROWS_METER_EXPECTED_NAME).tag("result", "updated").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(BATCH_ROWS_METER_EXPECTED_NAME).tag("result", "not-found").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedBatchChunkIsTracked() {
+        instrumentMetersService.trackFailedBatchChunk(1_000_000, 5);
+
+        assertThat(meterRegistry.get(BATCH_CHUNKS_METER_EXPECTED_NAME).tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(BATCH_ROWS_METER_EXPECTED_NAME).tag("result", "failed").counter().count()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryCacheMetersServiceTests {
+
+    private static final String REQUESTS_METER_EXPECTED_NAME = "cache.query.requests";
+
+    private static final String INSTRUMENT_REGION = "instrumentListQueries";
+
+    private static final String USER_REGION = "publicUserListQueries";
+
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = mock(Statistics.class);
+
+        new QueryCacheMetersService(meterRegistry, statistics, List.of(INSTRUMENT_REGION, USER_REGION));
+    }
+
+    @Test
+    void testRegionHitsAndMissesArePublished() {
+        CacheRegionStatistics regionStatistics = mock(CacheRegionStatistics.class);
+        when(regionStatistics.getHitCount()).thenReturn(7L);
+        when(regionStatistics.getMissCount()).thenReturn(2L);
+        when(regionStatistics.getPutCount()).thenReturn(2L);
+        when(statistics.getQueryRegionStatistics(INSTRUMENT_REGION)).thenReturn(regionStatistics);
+
+        assertThat(requests(INSTRUMENT_REGION, "hit")).isEqualTo(7);
+        assertThat(requests(INSTRUMENT_REGION, "miss")).isEqualTo(2);
+        assertThat(
+            meterRegistry.get("cache.query.puts").tag("region", INSTRUMENT_REGION).functionCounter().count()
+        )
+            .isEqualTo(2);
+    }
+
+    @Test
+    void testMissingRegionIsPublishedAsZero() {
+        assertThat(requests(USER_REGION, "hit")).isZero();
+        assertThat(requests(USER_REGION, "miss")).isZero();
+    }
+
+    private double requests(String region, String result) {
+        return meterRegistry.get(REQUESTS_METER_EXPECTED_NAME).tag("region", region).tag("result", result).functionCounter().count();
+    }
+}
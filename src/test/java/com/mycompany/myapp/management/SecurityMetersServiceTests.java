@@ -4,8 +4,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -13,6 +15,10 @@ class SecurityMetersServiceTests {
 
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
 
+    private static final String TOKEN_DECODING_METER_EXPECTED_NAME = "security.authentication.token-decoding";
+
+    private static final String VERIFIED_TOKENS_METER_EXPECTED_NAME = "security.authentication.verified-tokens";
+
     private MeterRegistry meterRegistry;
 
     private SecurityMetersService securityMetersService;
@@ -21,7 +27,7 @@ class SecurityMetersServiceTests {
     public void setup() {
         meterRegistry = new SimpleMeterRegistry();
 
-        securityMetersService = new SecurityMetersService(meterRegistry);
+        securityMetersService = new SecurityMetersService(meterRegistry, "HS512");
     }
 
     @Test
@@ -42,29 +48,57 @@ class SecurityMetersServiceTests {
     }
 
     @Test
-    void testCountMethodsShouldBeBoundToCorrectCounters() {
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isZero();
+    void testRejectedTokensAreCountedByCause() {
+        for (SecurityMetersService.TokenFailure failure : SecurityMetersService.TokenFailure.values()) {
+            assertThat(invalidTokens(failure.getCause())).isZero();
 
-        securityMetersService.trackTokenExpired();
-
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isEqualTo(1);
+            securityMetersService.trackTokenRejected(failure, "HS512", 1_000_000);
 
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "unsupported").counter().count()).isZero();
-
-        securityMetersService.trackTokenUnsupported();
-
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "unsupported").counter().count()).isEqualTo(1);
+            assertThat(invalidTokens(failure.getCause())).isEqualTo(1);
+        }
+        assertThat(meterRegistry.find(INVALID_TOKENS_METER_EXPECTED_NAME).counters()).hasSize(4);
+    }
 
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-signature").counter().count()).isZero();
+    @Test
+    void testVerifiedTokensCountersByResultAreBound() {
+        assertThat(meterRegistry.get(VERIFIED_TOKENS_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isZero();
+        assertThat(meterRegistry.get(VERIFIED_TOKENS_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isZero();
 
-        securityMetersService.trackTokenInvalidSignature();
+        securityMetersService.trackVerifiedTokenHit();
+        securityMetersService.trackVerifiedTokenHit();
+        securityMetersService.trackVerifiedTokenMiss();
 
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-signature").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(VERIFIED_TOKENS_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(VERIFIED_TOKENS_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
 
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isZero();
+    @Test
+    void testDecodingTimersByOutcomeAreBound() {
+        securityMetersService.trackTokenDecoded(2_000_000);
+        securityMetersService.trackTokenRejected(SecurityMetersService.TokenFailure.EXPIRED, "HS512", 1_000_000);
+
+        Timer success = meterRegistry.get(TOKEN_DECODING_METER_EXPECTED_NAME).tag("outcome", "success").tag("algorithm", "HS512").timer();
+        assertThat(success.count()).isEqualTo(1);
+        assertThat(success.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(2);
+        assertThat(meterRegistry.get(TOKEN_DECODING_METER_EXPECTED_NAME).tag("outcome", "expired").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isEqualTo(1);
+    }
 
-        securityMetersService.trackTokenMalformed();
+    @Test
+    void testRejectedTokensOfAnotherAlgorithmAreCountedApart() {
+        securityMetersService.trackTokenRejected(SecurityMetersService.TokenFailure.UNSUPPORTED, "RS256", 1_000_000);
+
+        assertThat(
+            meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "unsupported").tag("algorithm", "RS256").counter().count()
+        )
+            .isEqualTo(1);
+        assertThat(
+            meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "unsupported").tag("algorithm", "HS512").counter().count()
+        )
+            .isZero();
+    }
 
-        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
+    private double invalidTokens(String cause) {
+        return meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", cause).tag("algorithm", "HS512").counter().count();
     }
 }
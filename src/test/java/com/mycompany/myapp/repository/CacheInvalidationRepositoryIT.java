@@ -0,0 +1,108 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CacheInvalidationRepository}, with another instance played by plain notifications.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.cache-invalidation.enabled=true")
+class CacheInvalidationRepositoryIT {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldEvictEntriesInvalidatedByAnotherInstance() throws Exception {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+        String payload = "another-instance\n" + CacheInvalidationRepository.Kind.CACHE.ordinal() + "\t" + cache.getName() + "\tevicted";
+
+        // Retried until the listener is up
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        do {
+            cache.put("evicted", "value");
+            cache.put("kept", "value");
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.query("select pg_notify(?, ?)", resultSet -> {}, CacheInvalidationRepository.CHANNEL, payload)
+            );
+            Thread.sleep(200);
+        } while ((cache.get("evicted") != null || cache.get("kept") == null) && System.currentTimeMillis() < deadline);
+
+        assertThat(cache.get("evicted")).isNull();
+        assertThat(cache.get("kept")).isNotNull();
+    }
+
+    @Test
+    void shouldEmptyEveryCacheWhenAnotherInstanceOverflowed() throws Exception {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE));
+        CacheInvalidationRepository.Invalidation everything = CacheInvalidationRepository.EVERYTHING;
+        String payload = "another-instance\n" + everything.kind().ordinal() + "\t" + everything.name();
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        do {
+            cache.put("emptied", "value");
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.query("select pg_notify(?, ?)", resultSet -> {}, CacheInvalidationRepository.CHANNEL, payload)
+            );
+            Thread.sleep(200);
+        } while (cache.get("emptied") != null && System.currentTimeMillis() < deadline);
+
+        assertThat(cache.get("emptied")).isNull();
+    }
+
+    @Test
+    void shouldBroadcastEvictions() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("listen " + CacheInvalidationRepository.CHANNEL);
+            }
+            connection.commit();
+
+            cacheInvalidationRepository.broadcastCacheEviction(UserRepository.USERS_BY_LOGIN_CACHE, "broadcast");
+
+            List<String> payloads = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (payloads.stream().noneMatch(payload -> payload.contains("\tbroadcast")) && System.currentTimeMillis() < deadline) {
+                PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(500);
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        payloads.add(notification.getParameter());
+                    }
+                }
+            }
+            assertThat(payloads).anyMatch(payload -> payload.contains("\n0\t" + UserRepository.USERS_BY_LOGIN_CACHE + "\tbroadcast"));
+        }
+    }
+}
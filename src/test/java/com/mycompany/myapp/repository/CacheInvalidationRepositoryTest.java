@@ -0,0 +1,83 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.repository.CacheInvalidationRepository.Invalidation;
+import com.mycompany.myapp.repository.CacheInvalidationRepository.Kind;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the notification payloads of {@link CacheInvalidationRepository}.
+ */
+class CacheInvalidationRepositoryTest {
+
+    private static final String ORIGIN = "origin";
+
+    @Test
+    void shouldRoundTripInvalidations() {
+        List<Invalidation> invalidations = List.of(
+            new Invalidation(Kind.CACHE, UserRepository.USERS_BY_LOGIN_CACHE, "user"),
+            new Invalidation(Kind.ENTITY, "com.mycompany.myapp.domain.Instrument", "42"),
+            new Invalidation(Kind.COLLECTION, "com.mycompany.myapp.domain.User.authorities", null)
+        );
+
+        List<String> payloads = CacheInvalidationRepository.encode(ORIGIN, invalidations);
+
+        assertThat(payloads).hasSize(1);
+        assertThat(payloads.get(0)).startsWith(ORIGIN + "\n");
+        assertThat(CacheInvalidationRepository.decode(payloads.get(0).substring(ORIGIN.length() + 1))).isEqualTo(invalidations);
+    }
+
+    @Test
+    void shouldCoalesceEntriesIntoWholeRegion() {
+        String instrument = "com.mycompany.myapp.domain.Instrument";
+        List<Invalidation> invalidations = List.of(
+            new Invalidation(Kind.ENTITY, instrument, "1"),
+            new Invalidation(Kind.ENTITY, instrument, "1"),
+            new Invalidation(Kind.CACHE, instrument, "2"),
+            new Invalidation(Kind.ENTITY, instrument, null),
+            new Invalidation(Kind.ENTITY, instrument, "3")
+        );
+
+        List<String> payloads = CacheInvalidationRepository.encode(ORIGIN, invalidations);
+
+        assertThat(CacheInvalidationRepository.decode(payloads.get(0).substring(ORIGIN.length() + 1)))
+            .containsExactly(new Invalidation(Kind.CACHE, instrument, "2"), new Invalidation(Kind.ENTITY, instrument, null));
+    }
+
+    @Test
+    void shouldSplitPayloadsBelowNotifyLimit() {
+        List<Invalidation> invalidations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            invalidations.add(new Invalidation(Kind.CACHE, UserRepository.USERS_BY_EMAIL_CACHE, "user-" + i + "@localhost"));
+        }
+
+        List<String> payloads = CacheInvalidationRepository.encode(ORIGIN, invalidations);
+
+        assertThat(payloads).hasSizeGreaterThan(1).allSatisfy(payload -> assertThat(payload.length()).isLessThan(8000));
+        List<Invalidation> decoded = new ArrayList<>();
+        payloads.forEach(payload -> decoded.addAll(CacheInvalidationRepository.decode(payload.substring(ORIGIN.length() + 1))));
+        assertThat(decoded).isEqualTo(invalidations);
+    }
+
+    @Test
+    void shouldInvalidateWholeCacheForKeyTooLongForNotification() {
+        String instrument = "com.mycompany.myapp.domain.Instrument";
+        List<Invalidation> invalidations = List.of(
+            new Invalidation(Kind.CACHE, UserRepository.USERS_BY_LOGIN_CACHE, "x".repeat(10_000)),
+            new Invalidation(Kind.ENTITY, instrument, "1"),
+            new Invalidation(Kind.ENTITY, "x".repeat(10_000), null)
+        );
+
+        List<String> payloads = CacheInvalidationRepository.encode(ORIGIN, invalidations);
+
+        assertThat(payloads).hasSize(1).allSatisfy(payload -> assertThat(payload.length()).isLessThan(8000));
+        assertThat(CacheInvalidationRepository.decode(payloads.get(0).substring(ORIGIN.length() + 1)))
+            .containsExactly(
+                new Invalidation(Kind.CACHE, UserRepository.USERS_BY_LOGIN_CACHE, null),
+                new Invalidation(Kind.ENTITY, instrument, "1")
+            );
+    }
+}
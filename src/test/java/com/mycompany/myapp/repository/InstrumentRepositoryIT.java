@@ -0,0 +1,94 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
+import com.mycompany.myapp.domain.Instrument;
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests comparing the {@link InstrumentModel} projections of {@link InstrumentRepository} with the entity queries.
+ * <p>
+ * The allocation test is a coarse benchmark: it measures the bytes allocated by the test thread per page, after a warm-up.
+ */
+@IntegrationTest
+@Transactional
+class InstrumentRepositoryIT {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int ITERATIONS = 50;
+
+    private final Logger log = LoggerFactory.getLogger(InstrumentRepositoryIT.class);
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private final Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+
+    @BeforeEach
+    public void initTest() {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            em.persist(new Instrument().name("instrument-" + i));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findAllModelsShouldNotManageEntities() {
+        Page<InstrumentModel> page = instrumentRepository.findAllModels(pageable);
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(PAGE_SIZE);
+        assertThat(managedEntityCount()).isZero();
+
+        instrumentRepository.findAll(pageable);
+
+        assertThat(managedEntityCount()).isEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    void findAllModelsShouldAllocateLessPerPageThanEntities() {
+        long entityBytes = allocatedBytesPerPage(() -> instrumentRepository.findAll(pageable));
+        long modelBytes = allocatedBytesPerPage(() -> instrumentRepository.findAllModels(pageable));
+
+        log.info("Allocated per page of {} instruments: {} bytes as entities, {} bytes as models", PAGE_SIZE, entityBytes, modelBytes);
+        assertThat(modelBytes).isLessThan(entityBytes);
+    }
+
+    private long allocatedBytesPerPage(Runnable query) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+            em.clear();
+        }
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+            em.clear();
+        }
+        return (threadMXBean.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+
+    private int managedEntityCount() {
+        return em.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
@@ -0,0 +1,217 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.management.InstrumentMetersService;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO;
+import com.mycompany.myapp.service.dto.InstrumentChangeEventDTO.ChangeType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link InstrumentChangeFeed}.
+ */
+class InstrumentChangeFeedTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private InstrumentService instrumentService;
+
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getInstrumentFeed().setBufferSize(2);
+        instrumentService = mock(InstrumentService.class);
+    }
+
+    @Test
+    void shouldPushChangesToEverySubscriberInOrder() {
+        InstrumentChangeFeed feed = createFeed(Runnable::run);
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        feed.subscribe(first);
+        feed.subscribe(second);
+
+        feed.publish(event(1L));
+        feed.publish(event(2L));
+
+        assertThat(first.received).extracting(InstrumentChangeEventDTO::getChangeSequence).containsExactly(1L, 2L);
+        assertThat(second.received).extracting(InstrumentChangeEventDTO::getChangeSequence).containsExactly(1L, 2L);
+        assertThat(meterRegistry.get("instrument.feed.fanout").timer().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("instrument.feed.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPublishChangesCommittedSinceTheSubscription() {
+        InstrumentChangeFeed feed = createFeed(Runnable::run);
+        when(instrumentService.findCommittedChangeSequence()).thenReturn(10L);
+        when(instrumentService.findChangeEventsSince(10L, 1000)).thenReturn(List.of(event(11L), event(13L)));
+        when(instrumentService.findChangeEventsSince(13L, 1000)).thenReturn(List.of(event(14L)));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+
+        feed.poll();
+        feed.poll();
+
+        assertThat(subscriber.received).extracting(InstrumentChangeEventDTO::getChangeSequence).containsExactly(11L, 13L, 14L);
+        verify(instrumentService).findChangeEventsSince(13L, 1000);
+    }
+
+    @Test
+    void shouldDisconnectSlowConsumer() {
+        InstrumentChangeFeed feed = createFeed(pendingTasks::add);
+        RecordingSubscriber slow = new RecordingSubscriber();
+        feed.subscribe(slow);
+
+        feed.publish(event(1L));
+        feed.publish(event(2L));
+        feed.publish(event(3L));
+
+        assertThat(slow.closed).isTrue();
+        assertThat(feed.subscriberCount()).isZero();
+        assertThat(meterRegistry.get("instrument.feed.slow.consumers").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("instrument.feed.events").tag("result", "dropped").counter().count()).isEqualTo(3);
+
+        // The drain scheduled before the disconnection has nothing left to send
+        pendingTasks.forEach(Runnable::run);
+        assertThat(slow.received).isEmpty();
+    }
+
+    @Test
+    void shouldKeepUpWithDrainedBuffer() {
+        InstrumentChangeFeed feed = createFeed(pendingTasks::add);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+
+        feed.publish(event(1L));
+        feed.publish(event(2L));
+        runPendingTasks();
+        feed.publish(event(3L));
+        runPendingTasks();
+
+        assertThat(subscriber.closed).isFalse();
+        assertThat(subscriber.received).extracting(InstrumentChangeEventDTO::getChangeSequence).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldStopPushingAfterCancel() {
+        InstrumentChangeFeed feed = createFeed(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        InstrumentChangeFeed.Subscription subscription = feed.subscribe(subscriber);
+
+        assertThat(subscription.cancel()).isTrue();
+        assertThat(subscription.cancel()).isFalse();
+        feed.publish(event(1L));
+
+        assertThat(subscriber.received).isEmpty();
+        assertThat(meterRegistry.get("instrument.feed.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldUnsubscribeFailingSubscriber() {
+        InstrumentChangeFeed feed = createFeed(Runnable::run);
+        feed.subscribe(
+            new RecordingSubscriber() {
+                @Override
+                public void send(InstrumentChangeEventDTO event) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        );
+
+        feed.publish(event(1L));
+
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    @Test
+    void shouldDisconnectSubscriberWhoseSendTimesOut() throws Exception {
+        applicationProperties.getInstrumentFeed().setSendTimeout(Duration.ZERO);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        InstrumentChangeFeed feed = createFeed(executor);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        feed.subscribe(
+            new RecordingSubscriber() {
+                @Override
+                public void send(InstrumentChangeEventDTO event) throws IOException {
+                    sending.countDown();
+                    try {
+                        // A client that stopped reading
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException e) {
+                        throw new IOException("Write interrupted", e);
+                    }
+                }
+
+                @Override
+                public void close() {
+                    closed.countDown();
+                }
+            }
+        );
+
+        try {
+            feed.publish(event(1L));
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+            feed.disconnectStalledSubscribers();
+
+            assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(feed.subscriberCount()).isZero();
+            assertThat(meterRegistry.get("instrument.feed.slow.consumers").counter().count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private InstrumentChangeFeed createFeed(Executor executor) {
+        return new InstrumentChangeFeed(executor, instrumentService, new InstrumentMetersService(meterRegistry), applicationProperties);
+    }
+
+    private void runPendingTasks() {
+        while (!pendingTasks.isEmpty()) {
+            pendingTasks.remove(0).run();
+        }
+    }
+
+    private static InstrumentChangeEventDTO event(Long changeSequence) {
+        return new InstrumentChangeEventDTO(ChangeType.DELETED, changeSequence, changeSequence, null);
+    }
+
+    private static class RecordingSubscriber implements InstrumentChangeFeed.Subscriber {
+
+        private final List<InstrumentChangeEventDTO> received = new ArrayList<>();
+
+        private boolean closed;
+
+        @Override
+        public void send(InstrumentChangeEventDTO event) throws IOException {
+            received.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.application.domain.model.InstrumentModel;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.InstrumentRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link InstrumentSnapshotIndex}.
+ */
+class InstrumentSnapshotIndexTest {
+
+    private InstrumentRepository instrumentRepository;
+
+    private InstrumentSnapshotIndex index;
+
+    @BeforeEach
+    public void setup() {
+        instrumentRepository = mock(InstrumentRepository.class);
+        index = new InstrumentSnapshotIndex(instrumentRepository, Runnable::run, new ApplicationProperties());
+    }
+
+    @Test
+    void shouldKeepChangesCommittedWhileReloading() {
+        when(instrumentRepository.findAllModels()).thenReturn(List.of(new InstrumentModel(1L, "a", 0L), new InstrumentModel(2L, "b", 0L)));
+        index.load();
+
+        // Committed after the reload query read the instruments
+        when(instrumentRepository.findAllModels())
+            .thenAnswer(invocation -> {
+                index.put(new InstrumentModel(1L, "aa", 1L));
+                index.evict(2L);
+                return List.of(new InstrumentModel(1L, "a", 0L), new InstrumentModel(2L, "b", 0L));
+            });
+        index.reload();
+
+        assertThat(index.current()).hasValueSatisfying(snapshot -> {
+            assertThat(snapshot.get(1L).getName()).isEqualTo("aa");
+            assertThat(snapshot.get(2L)).isNull();
+        });
+    }
+
+    @Test
+    void shouldServePreviousSnapshotUpdatedWhileReloading() {
+        when(instrumentRepository.findAllModels()).thenReturn(List.of(new InstrumentModel(1L, "a", 0L)));
+        index.load();
+
+        when(instrumentRepository.findAllModels())
+            .thenAnswer(invocation -> {
+                index.put(new InstrumentModel(1L, "aa", 1L));
+                assertThat(index.current()).hasValueSatisfying(snapshot -> assertThat(snapshot.get(1L).getName()).isEqualTo("aa"));
+                return List.of(new InstrumentModel(1L, "a", 0L));
+            });
+        index.reload();
+    }
+}
@@ -0,0 +1,125 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.jayway.jsonpath.JsonPath;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Instrument;
+import com.mycompany.myapp.repository.InstrumentRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link InstrumentImportResource} REST controller.
+ * <p>
+ * Not transactional: the import copies and merges on connections of its own, and the test task executor runs the merge
+ * before the request completes.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class InstrumentImportResourceIT {
+
+    private static final String NAME_PREFIX = "import-";
+
+    private static final String ENTITY_API_URL = "/api/admin/instruments/imports";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @Autowired
+    private MockMvc restInstrumentImportMockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        instrumentRepository.deleteAllInBatch(instrumentRepository.findByNameStartingWithIgnoreCase(NAME_PREFIX, Pageable.unpaged()));
+    }
+
+    @Test
+    void importInstruments() throws Exception {
+        Instrument existing = instrumentRepository.saveAndFlush(new Instrument().name(NAME_PREFIX + "existing"));
+        long unknownId = existing.getId() + 1_000_000;
+        String csv =
+            "id;name\n" +
+            ";" +
+            NAME_PREFIX +
+            "first\n" +
+            ";" +
+            NAME_PREFIX +
+            "second\n" +
+            existing.getId() +
+            ";" +
+            NAME_PREFIX +
+            "updated\n" +
+            unknownId +
+            ";" +
+            NAME_PREFIX +
+            "unknown\n";
+
+        MvcResult result = restInstrumentImportMockMvc
+            .perform(post(ENTITY_API_URL).contentType("text/csv").content(csv))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists("Location"))
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.rowsCopied").value(4))
+            .andExpect(jsonPath("$.inserted").value(2))
+            .andExpect(jsonPath("$.updated").value(1))
+            .andExpect(jsonPath("$.notFound").value(1))
+            .andExpect(jsonPath("$.bytesRead").value(csv.length()))
+            .andReturn();
+        String id = JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+
+        restInstrumentImportMockMvc
+            .perform(get(ENTITY_API_URL_ID, id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id))
+            .andExpect(jsonPath("$.status").value("COMPLETED"));
+
+        List<Instrument> instruments = instrumentRepository.findByNameStartingWithIgnoreCase(NAME_PREFIX, Pageable.unpaged());
+        assertThat(instruments)
+            .extracting(Instrument::getName)
+            .containsExactlyInAnyOrder(NAME_PREFIX + "first", NAME_PREFIX + "second", NAME_PREFIX + "updated");
+        // The new instruments share one block of sequence_generator, in the order of their rows
+        Map<String, Long> ids = instruments.stream().collect(Collectors.toMap(Instrument::getName, Instrument::getId));
+        assertThat(ids.get(NAME_PREFIX + "second")).isEqualTo(ids.get(NAME_PREFIX + "first") + 1);
+        // An unknown id is not taken as the id of a new instrument, which could collide with a generated one
+        assertThat(instrumentRepository.findById(unknownId)).isEmpty();
+        Instrument updated = instrumentRepository.findById(existing.getId()).orElseThrow();
+        assertThat(updated.getVersion()).isEqualTo(existing.getVersion() + 1);
+        assertThat(updated.getChangeSequence()).isGreaterThan(existing.getChangeSequence());
+    }
+
+    @Test
+    void importInstrumentsWithInvalidDelimiter() throws Exception {
+        restInstrumentImportMockMvc
+            .perform(post(ENTITY_API_URL).param("delimiter", "#").contentType("text/csv").content("id#name\n#" + NAME_PREFIX + "x\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importInstrumentsWithInvalidCsv() throws Exception {
+        restInstrumentImportMockMvc
+            .perform(post(ENTITY_API_URL).contentType("text/csv").content("id;name\nnot-a-number;" + NAME_PREFIX + "x\n"))
+            .andExpect(status().isBadRequest());
+
+        assertThat(instrumentRepository.findByNameStartingWithIgnoreCase(NAME_PREFIX, Pageable.unpaged())).isEmpty();
+    }
+
+    @Test
+    void getNonExistingImport() throws Exception {
+        restInstrumentImportMockMvc.perform(get(ENTITY_API_URL_ID, "unknown")).andExpect(status().isNotFound());
+    }
+}
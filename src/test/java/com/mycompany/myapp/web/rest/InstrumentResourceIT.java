@@ -1,26 +1,40 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Instrument;
 import com.mycompany.myapp.repository.InstrumentRepository;
+import com.mycompany.myapp.repository.InstrumentTombstoneRepository;
 import com.mycompany.myapp.service.dto.InstrumentDTO;
 import com.mycompany.myapp.service.mapper.InstrumentMapper;
 import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -43,6 +57,9 @@ class InstrumentResourceIT {
     @Autowired
     private InstrumentRepository instrumentRepository;
 
+    @Autowired
+    private InstrumentTombstoneRepository instrumentTombstoneRepository;
+
     @Autowired
     private InstrumentMapper instrumentMapper;
 
@@ -52,6 +69,9 @@ class InstrumentResourceIT {
     @Autowired
     private MockMvc restInstrumentMockMvc;
 
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
     private Instrument instrument;
 
     /**
@@ -117,6 +137,85 @@ class InstrumentResourceIT {
         assertThat(instrumentList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void saveInstrumentsBatch() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        int databaseSizeBeforeCreate = instrumentRepository.findAll().size();
+
+        InstrumentDTO updatedInstrumentDTO = instrumentMapper.toDto(instrument);
+        updatedInstrumentDTO.setName(UPDATED_NAME);
+        InstrumentDTO newInstrumentDTO = new InstrumentDTO();
+        newInstrumentDTO.setName(DEFAULT_NAME);
+        InstrumentDTO unknownInstrumentDTO = new InstrumentDTO();
+        unknownInstrumentDTO.setId(longCount.incrementAndGet());
+        unknownInstrumentDTO.setName(DEFAULT_NAME);
+
+        restInstrumentMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(updatedInstrumentDTO, newInstrumentDTO, unknownInstrumentDTO)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(3))
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.updated").value(1))
+            .andExpect(jsonPath("$.notFound").value(1))
+            .andExpect(jsonPath("$.chunks[0].failed").value(false));
+
+        // Validate the Instruments in the database
+        assertThat(instrumentRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+        assertThat(instrumentRepository.findById(instrument.getId()).orElseThrow().getName()).isEqualTo(UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    void saveInstrumentsStream() throws Exception {
+        int databaseSizeBeforeCreate = instrumentRepository.findAll().size();
+
+        InstrumentDTO instrumentDTO = instrumentMapper.toDto(instrument);
+        String body =
+            new String(TestUtil.convertObjectToJsonBytes(instrumentDTO)) + "\n" + new String(TestUtil.convertObjectToJsonBytes(instrumentDTO));
+
+        restInstrumentMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.created").value(2));
+
+        // Validate the Instruments in the database
+        assertThat(instrumentRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    @Transactional
+    void saveInstrumentsStreamWithRejectedLines() throws Exception {
+        int databaseSizeBeforeCreate = instrumentRepository.findAll().size();
+
+        String valid = new String(TestUtil.convertObjectToJsonBytes(instrumentMapper.toDto(instrument)));
+        InstrumentDTO tooLongName = new InstrumentDTO();
+        tooLongName.setName("A".repeat(256));
+        String body = valid + "\n{\"name\": \n" + new String(TestUtil.convertObjectToJsonBytes(tooLongName)) + "\n" + valid;
+
+        // The malformed and the invalid lines are rejected, without failing the chunk or the rest of the stream
+        restInstrumentMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(4))
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.failed").value(0))
+            .andExpect(jsonPath("$.chunks[0].failed").value(false))
+            .andExpect(jsonPath("$.chunks[0].rejections.length()").value(2))
+            .andExpect(jsonPath("$.chunks[0].rejections[1]").value(containsString("name")));
+
+        // Validate the Instruments in the database
+        assertThat(instrumentRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
     @Test
     @Transactional
     void getAllInstruments() throws Exception {
@@ -132,6 +231,223 @@ class InstrumentResourceIT {
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
     }
 
+    @Test
+    @Transactional
+    void getAllInstrumentsWithoutCount() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+        instrumentRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page, which has a next one, without any count
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().doesNotExist(SlicePaginationUtil.HEADER_X_TOTAL_COUNT_ESTIMATE))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1));
+
+        // Get the first page with an estimated count
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=estimate"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists(SlicePaginationUtil.HEADER_X_TOTAL_COUNT_ESTIMATE));
+
+        restInstrumentMockMvc.perform(get(ENTITY_API_URL + "?count=maybe")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllInstrumentsNotModified() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        String eTag = restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // Written without going through this instance, as another one would
+        instrumentRepository.updateInPlace(new Instrument().id(instrument.getId()).name(UPDATED_NAME), false);
+
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].name").value(hasItem(UPDATED_NAME)));
+    }
+
+    @Test
+    @Transactional
+    void getAllInstrumentsAfterCursor() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+        instrumentRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the first page, then follow the link to the next one
+        MvcResult firstPage = restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andReturn();
+        String link = firstPage.getResponse().getHeader(HttpHeaders.LINK);
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        long firstId = ((Number) JsonPath.read(firstPage.getResponse().getContentAsString(), "$[0].id")).longValue();
+
+        restInstrumentMockMvc
+            .perform(get(next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(greaterThan(firstId), Long.class));
+    }
+
+    @Test
+    @Transactional
+    void getAllInstrumentsWithInvalidCursor() throws Exception {
+        restInstrumentMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void searchInstrumentsByNamePrefix() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        // Search the instruments by a lower-case prefix of their name
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "/search?prefix=" + DEFAULT_NAME.substring(0, 3).toLowerCase()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(instrument.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(everyItem(startsWith(DEFAULT_NAME.substring(0, 3)))));
+    }
+
+    @Test
+    @Transactional
+    void searchInstrumentsWithEmptyPrefix() throws Exception {
+        restInstrumentMockMvc.perform(get(ENTITY_API_URL + "/search?prefix=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getInstrumentChanges() throws Exception {
+        long since = instrumentRepository.nextChangeSequences(1).get(0);
+
+        // Initialize the database, then delete one of the instruments
+        instrumentRepository.saveAndFlush(instrument.changeSequence(instrumentRepository.nextChangeSequences(1).get(0)));
+        Instrument deletedInstrument = instrumentRepository.saveAndFlush(
+            createUpdatedEntity(em).changeSequence(instrumentRepository.nextChangeSequences(1).get(0))
+        );
+        restInstrumentMockMvc.perform(delete(ENTITY_API_URL_ID, deletedInstrument.getId())).andExpect(status().isNoContent());
+
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since=" + since))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.instruments.length()").value(1))
+            .andExpect(jsonPath("$.instruments.[*].id").value(hasItem(instrument.getId().intValue())))
+            .andExpect(jsonPath("$.deletedIds").value(hasItem(deletedInstrument.getId().intValue())))
+            .andExpect(jsonPath("$.hasMore").value(false));
+
+        // The changes are paged in change order
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since=" + since + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.instruments.length()").value(1))
+            .andExpect(jsonPath("$.deletedIds").isEmpty())
+            .andExpect(jsonPath("$.next").value(instrument.getChangeSequence()))
+            .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void getInstrumentChangesWithInterleavedTransactions() throws Exception {
+        long firstId = longCount.incrementAndGet();
+        long secondId = longCount.incrementAndGet();
+        // Connections of their own, as the pool of the tests holds a single one
+        try (Connection first = openConnection(); Connection second = openConnection()) {
+            long firstChange = insertInstrument(first, firstId, DEFAULT_NAME);
+            long secondChange = insertInstrument(second, secondId, UPDATED_NAME);
+            second.commit();
+
+            // The second change committed, but not the first one, which took an earlier value: listing the second one
+            // would have the next request start after the first one
+            restInstrumentMockMvc
+                .perform(get(ENTITY_API_URL + "/changes?since=" + (firstChange - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.instruments").isEmpty())
+                .andExpect(jsonPath("$.next").value(firstChange - 1));
+
+            first.commit();
+
+            restInstrumentMockMvc
+                .perform(get(ENTITY_API_URL + "/changes?since=" + (firstChange - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.instruments.length()").value(2))
+                .andExpect(jsonPath("$.instruments[0].id").value(firstId))
+                .andExpect(jsonPath("$.instruments[1].id").value(secondId))
+                .andExpect(jsonPath("$.next").value(secondChange));
+        } finally {
+            try (Connection connection = openConnection()) {
+                try (PreparedStatement statement = connection.prepareStatement("delete from instrument where id in (?, ?)")) {
+                    statement.setLong(1, firstId);
+                    statement.setLong(2, secondId);
+                    statement.executeUpdate();
+                }
+                connection.commit();
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+            dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(),
+            dataSourceProperties.determinePassword()
+        );
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private static long insertInstrument(Connection connection, long id, String name) throws SQLException {
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                "insert into instrument (id, name, version, change_sequence) values (?, ?, 0, next_instrument_change_sequence())" +
+                " returning change_sequence"
+            )
+        ) {
+            statement.setLong(1, id);
+            statement.setString(2, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportInstruments() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        // Export all the instruments
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(containsString("\"id\":" + instrument.getId())))
+            .andExpect(content().string(containsString("\"name\":\"" + DEFAULT_NAME + "\"")));
+    }
+
     @Test
     @Transactional
     void getInstrument() throws Exception {
@@ -144,7 +460,64 @@ class InstrumentResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(instrument.getId().intValue()))
-            .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
+            .andExpect(jsonPath("$.name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.version").value(0))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + instrument.getId() + "-0\""));
+    }
+
+    @Test
+    @Transactional
+    void getInstrumentNotModified() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL_ID, instrument.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + instrument.getId() + "-0\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // Once the instrument changes, the old entity tag no longer matches
+        instrumentRepository.saveAndFlush(instrument.name(UPDATED_NAME));
+
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL_ID, instrument.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + instrument.getId() + "-0\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + instrument.getId() + "-1\""));
+    }
+
+    @Test
+    @Transactional
+    void getInstrumentsByIds() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+        Instrument otherInstrument = instrumentRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the instruments, unknown ids being skipped
+        restInstrumentMockMvc
+            .perform(get(ENTITY_API_URL + "/by-ids?ids=" + otherInstrument.getId() + "," + Long.MAX_VALUE + "," + instrument.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].name").value(UPDATED_NAME))
+            .andExpect(jsonPath("$[1].name").value(DEFAULT_NAME));
+    }
+
+    @Test
+    @Transactional
+    void postInstrumentsByIds() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        restInstrumentMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/by-ids")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(instrument.getId(), instrument.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(instrument.getId().intValue()));
     }
 
     @Test
@@ -182,6 +555,68 @@ class InstrumentResourceIT {
         assertThat(instrumentList).hasSize(databaseSizeBeforeUpdate);
         Instrument testInstrument = instrumentList.get(instrumentList.size() - 1);
         assertThat(testInstrument.getName()).isEqualTo(UPDATED_NAME);
+        assertThat(testInstrument.getVersion()).isEqualTo(instrumentDTO.getVersion() + 1);
+    }
+
+    @Test
+    @Transactional
+    void putInstrumentWithStaleVersion() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        InstrumentDTO instrumentDTO = instrumentMapper.toDto(instrument);
+        instrumentDTO.setName(UPDATED_NAME);
+        instrumentDTO.setVersion(instrument.getVersion() + 1);
+
+        // An update based on another version of the instrument is rejected
+        restInstrumentMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, instrumentDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(instrumentDTO))
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the Instrument in the database is unchanged
+        Instrument testInstrument = instrumentRepository.findById(instrument.getId()).orElseThrow();
+        assertThat(testInstrument.getName()).isEqualTo(DEFAULT_NAME);
+        assertThat(testInstrument.getVersion()).isEqualTo(instrument.getVersion());
+    }
+
+    @Test
+    @Transactional
+    void putInstrumentUpdatedConcurrently() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        // Two clients read the same version of the instrument
+        InstrumentDTO firstInstrumentDTO = instrumentMapper.toDto(instrument);
+        firstInstrumentDTO.setName(UPDATED_NAME);
+        InstrumentDTO secondInstrumentDTO = instrumentMapper.toDto(instrument);
+        secondInstrumentDTO.setName("CCCCCCCCCC");
+
+        restInstrumentMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, firstInstrumentDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(firstInstrumentDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(instrument.getVersion().intValue() + 1));
+
+        // The second update would overwrite the first one without having seen it, so it is rejected
+        restInstrumentMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, secondInstrumentDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(secondInstrumentDTO))
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the Instrument in the database keeps the first update
+        Instrument testInstrument = instrumentRepository.findById(instrument.getId()).orElseThrow();
+        assertThat(testInstrument.getName()).isEqualTo(UPDATED_NAME);
+        assertThat(testInstrument.getVersion()).isEqualTo(instrument.getVersion() + 1);
     }
 
     @Test
@@ -193,14 +628,14 @@ class InstrumentResourceIT {
         // Create the Instrument
         InstrumentDTO instrumentDTO = instrumentMapper.toDto(instrument);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If no instrument has that ID, nothing is updated
         restInstrumentMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, instrumentDTO.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(instrumentDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Instrument in the database
         List<Instrument> instrumentList = instrumentRepository.findAll();
@@ -305,6 +740,59 @@ class InstrumentResourceIT {
         assertThat(testInstrument.getName()).isEqualTo(UPDATED_NAME);
     }
 
+    @Test
+    @Transactional
+    void partialUpdateInstrumentWithPatchKeepsOmittedFields() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        // A patch without a name, at the current version
+        InstrumentDTO partialUpdatedInstrumentDTO = new InstrumentDTO();
+        partialUpdatedInstrumentDTO.setId(instrument.getId());
+        partialUpdatedInstrumentDTO.setVersion(instrument.getVersion());
+
+        restInstrumentMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedInstrumentDTO.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedInstrumentDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.version").value(instrument.getVersion().intValue() + 1));
+
+        // Validate the Instrument in the database kept its name, in a new version
+        Instrument testInstrument = instrumentRepository.findById(instrument.getId()).orElseThrow();
+        assertThat(testInstrument.getName()).isEqualTo(DEFAULT_NAME);
+        assertThat(testInstrument.getVersion()).isEqualTo(instrument.getVersion() + 1);
+    }
+
+    @Test
+    @Transactional
+    void patchInstrumentWithStaleVersion() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+
+        InstrumentDTO partialUpdatedInstrumentDTO = new InstrumentDTO();
+        partialUpdatedInstrumentDTO.setId(instrument.getId());
+        partialUpdatedInstrumentDTO.setName(UPDATED_NAME);
+        partialUpdatedInstrumentDTO.setVersion(instrument.getVersion() + 1);
+
+        // A patch based on another version of the instrument is rejected
+        restInstrumentMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedInstrumentDTO.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedInstrumentDTO))
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the Instrument in the database is unchanged
+        Instrument testInstrument = instrumentRepository.findById(instrument.getId()).orElseThrow();
+        assertThat(testInstrument.getName()).isEqualTo(DEFAULT_NAME);
+        assertThat(testInstrument.getVersion()).isEqualTo(instrument.getVersion());
+    }
+
     @Test
     @Transactional
     void patchNonExistingInstrument() throws Exception {
@@ -314,14 +802,14 @@ class InstrumentResourceIT {
         // Create the Instrument
         InstrumentDTO instrumentDTO = instrumentMapper.toDto(instrument);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If no instrument has that ID, nothing is updated
         restInstrumentMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, instrumentDTO.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(instrumentDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Instrument in the database
         List<Instrument> instrumentList = instrumentRepository.findAll();
@@ -389,4 +877,56 @@ class InstrumentResourceIT {
         List<Instrument> instrumentList = instrumentRepository.findAll();
         assertThat(instrumentList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void deleteInstrumentsByIds() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument);
+        Instrument other = instrumentRepository.saveAndFlush(createEntity(em));
+
+        int databaseSizeBeforeDelete = instrumentRepository.findAll().size();
+
+        // Delete the instruments, with an unknown id that is ignored
+        restInstrumentMockMvc
+            .perform(
+                delete(ENTITY_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(instrument.getId(), other.getId(), longCount.incrementAndGet())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deleted").value(2));
+
+        // Validate the database contains two less items, and their tombstones
+        List<Instrument> instrumentList = instrumentRepository.findAll();
+        assertThat(instrumentList).hasSize(databaseSizeBeforeDelete - 2);
+        assertThat(instrumentTombstoneRepository.findAllById(List.of(instrument.getId(), other.getId()))).hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    void deleteInstrumentsByNamePrefix() throws Exception {
+        // Initialize the database
+        instrumentRepository.saveAndFlush(instrument.name("delisted-" + DEFAULT_NAME));
+        Instrument kept = instrumentRepository.saveAndFlush(createEntity(em));
+
+        // Delete the instruments, matching the prefix ignoring case
+        restInstrumentMockMvc
+            .perform(delete(ENTITY_API_URL).param("namePrefix", "DELISTED-"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deleted").value(1))
+            .andExpect(header().string("X-jhi8DemoApp-alert", "Deleted instruments: 1"))
+            .andExpect(header().string("X-jhi8DemoApp-params", "1"));
+
+        // Validate only the matching instrument was deleted
+        assertThat(instrumentRepository.findById(instrument.getId())).isEmpty();
+        assertThat(instrumentRepository.findById(kept.getId())).isPresent();
+    }
+
+    @Test
+    @Transactional
+    void deleteInstrumentsWithoutFilter() throws Exception {
+        restInstrumentMockMvc.perform(delete(ENTITY_API_URL)).andExpect(status().isBadRequest());
+        restInstrumentMockMvc.perform(delete(ENTITY_API_URL).param("namePrefix", " ")).andExpect(status().isBadRequest());
+    }
 }
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -48,6 +49,8 @@ class PublicUserResourceIT {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserRepository.UNKNOWN_USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.UNKNOWN_USERS_BY_EMAIL_CACHE).clear();
     }
 
     @BeforeEach
@@ -72,6 +75,28 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").doesNotExist());
     }
 
+    @Test
+    @Transactional
+    void getAllPublicUsersWithoutCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get all the users, without counting them
+        restUserMockMvc
+            .perform(get("/api/users?sort=id,desc&count=none").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)));
+
+        restUserMockMvc
+            .perform(get("/api/users?sort=id,desc&count=estimate").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(SlicePaginationUtil.HEADER_X_TOTAL_COUNT_ESTIMATE));
+
+        restUserMockMvc.perform(get("/api/users?count=maybe").accept(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllAuthorities() throws Exception {
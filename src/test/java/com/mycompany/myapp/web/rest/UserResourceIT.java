@@ -79,6 +79,8 @@ class UserResourceIT {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserRepository.UNKNOWN_USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.UNKNOWN_USERS_BY_EMAIL_CACHE).clear();
     }
 
     /**
@@ -245,6 +247,20 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    void getAllUsersWithoutCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get all the users, without counting them
+        restUserMockMvc
+            .perform(get("/api/admin/users?sort=id,desc&count=none").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)));
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {